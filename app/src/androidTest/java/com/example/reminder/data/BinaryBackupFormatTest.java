@@ -0,0 +1,241 @@
+package com.example.reminder.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import android.database.MatrixCursor;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Round trips {@link BinaryBackupFormat} through a {@link MatrixCursor} shaped like
+ * the reminders table, and compares its size and speed with the JSON export of
+ * the same rows. The comparison is logged under the "BinaryBackupFormatTest" tag.
+ */
+@RunWith(AndroidJUnit4.class)
+public class BinaryBackupFormatTest {
+
+    private static final String[] COLUMNS = { "id", "title", "description", "timeMillis", "isAllDay",
+            "repeatMode", "isCompleted", "color", "repeatInterval", "hideFromWidget", "repeatDayMask",
+            "windowStart", "windowEnd" };
+    private static final int ROWS = 20_000;
+    private static final String[] TITLES = { "Take medication", "Water the plants", "Team standup", "Gym",
+            "Call mom", "Pay rent", "Stretch" };
+    private static final String[] MODES = { "NONE", "DAILY", "WEEKLY", "MONTHLY", "HOURLY", "CUSTOM", null };
+
+    @Test
+    public void snapshotRoundTripsEveryField() throws Exception {
+        List<Object[]> rows = generateRows(ROWS);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(ROWS, BinaryBackupFormat.write(cursorOf(rows), out));
+
+        List<Reminder> decoded = new ArrayList<>();
+        int read = BinaryBackupFormat.read(new ByteArrayInputStream(out.toByteArray()), decoded::add);
+
+        assertEquals(ROWS, read);
+        assertEquals(ROWS, decoded.size());
+        for (int i = 0; i < ROWS; i++) {
+            assertRow(rows.get(i), decoded.get(i));
+        }
+    }
+
+    @Test
+    public void deltaCarriesUpsertsThenDeletes() throws Exception {
+        List<Object[]> rows = generateRows(50);
+        List<Integer> deleted = Arrays.asList(3, 70_000, 12);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int written = BinaryBackupFormat.writeSegment(out, BinaryBackupFormat.KIND_DELTA, 5, 9, cursorOf(rows),
+                deleted);
+        assertEquals(rows.size() + deleted.size(), written);
+
+        List<Reminder> upserts = new ArrayList<>();
+        List<Integer> deletes = new ArrayList<>();
+        BinaryBackupFormat.read(new ByteArrayInputStream(out.toByteArray()), new BinaryBackupFormat.RowSink() {
+            @Override
+            public void accept(Reminder reminder) {
+                assertTrue("Upserts come before deletes", deletes.isEmpty());
+                upserts.add(reminder);
+            }
+
+            @Override
+            public void delete(int id) {
+                deletes.add(id);
+            }
+        });
+
+        assertEquals(rows.size(), upserts.size());
+        for (int i = 0; i < rows.size(); i++) {
+            assertRow(rows.get(i), upserts.get(i));
+        }
+        assertEquals(deleted, deletes);
+    }
+
+    @Test
+    public void emptySnapshotRoundTrips() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(0, BinaryBackupFormat.write(cursorOf(Collections.emptyList()), out));
+        assertEquals(0, BinaryBackupFormat.read(new ByteArrayInputStream(out.toByteArray()), reminder -> {
+            fail("No rows expected");
+        }));
+    }
+
+    @Test
+    public void truncatedStreamFailsInsteadOfReturningPartialData() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryBackupFormat.write(cursorOf(generateRows(500)), out);
+        byte[] truncated = Arrays.copyOf(out.toByteArray(), out.size() / 2);
+        try {
+            BinaryBackupFormat.read(new ByteArrayInputStream(truncated), reminder -> {
+            });
+            fail("Truncated backup was accepted");
+        } catch (IOException expected) {
+            // EOF from gzip or the record reader
+        }
+    }
+
+    @Test
+    public void isBinaryTellsFormatsApart() throws Exception {
+        ByteArrayOutputStream binary = new ByteArrayOutputStream();
+        BinaryBackupFormat.write(cursorOf(generateRows(1)), binary);
+        assertTrue(BinaryBackupFormat.isBinary(new ByteArrayInputStream(binary.toByteArray())));
+        ByteArrayOutputStream json = new ByteArrayOutputStream();
+        BackupRepository.writeJson(cursorOf(generateRows(1)), json);
+        assertFalse(BinaryBackupFormat.isBinary(new ByteArrayInputStream(json.toByteArray())));
+    }
+
+    @Test
+    public void binaryIsSmallerThanJsonForSameRows() throws Exception {
+        List<Object[]> rows = generateRows(ROWS);
+        for (int round = 0; round < 2; round++) { // First round warms up both paths
+            long start = System.nanoTime();
+            ByteArrayOutputStream json = new ByteArrayOutputStream();
+            BackupRepository.writeJson(cursorOf(rows), json);
+            long jsonWrite = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            ByteArrayOutputStream binary = new ByteArrayOutputStream();
+            BinaryBackupFormat.write(cursorOf(rows), binary);
+            long binaryWrite = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            int jsonRead = readJson(json.toByteArray());
+            long jsonReadNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            int binaryRead = BinaryBackupFormat.read(new ByteArrayInputStream(binary.toByteArray()), reminder -> {
+            });
+            long binaryReadNanos = System.nanoTime() - start;
+
+            assertEquals(ROWS, jsonRead);
+            assertEquals(ROWS, binaryRead);
+            assertTrue("binary " + binary.size() + " bytes vs json " + json.size(), binary.size() < json.size());
+            android.util.Log.i("BinaryBackupFormatTest", ROWS + " rows: json " + json.size() / 1024 + " KiB, write "
+                    + jsonWrite / 1_000_000 + " ms, read " + jsonReadNanos / 1_000_000 + " ms; binary "
+                    + binary.size() / 1024 + " KiB, write " + binaryWrite / 1_000_000 + " ms, read "
+                    + binaryReadNanos / 1_000_000 + " ms");
+        }
+    }
+
+    // Rows as the export query returns them: ordered by timeMillis, ids in any order
+    private static List<Object[]> generateRows(int count) {
+        Random random = new Random(count);
+        List<Object[]> rows = new ArrayList<>(count);
+        long time = 1_700_000_000_000L;
+        for (int i = 0; i < count; i++) {
+            time += random.nextInt(6 * 60 * 60 * 1000);
+            boolean custom = random.nextInt(4) == 0;
+            String description;
+            switch (i % 4) {
+                case 0:
+                    description = null;
+                    break;
+                case 1:
+                    description = "";
+                    break;
+                case 2:
+                    description = "Notes for reminder " + i + ": bring the blue folder and the signed forms, "
+                            + "then check in at the front desk ✓";
+                    break;
+                default:
+                    description = "Weekly";
+                    break;
+            }
+            rows.add(new Object[] {
+                    1 + random.nextInt(100_000),
+                    i % 97 == 0 ? "Réunion 📅 " + i : TITLES[random.nextInt(TITLES.length)],
+                    description,
+                    time,
+                    random.nextInt(10) == 0 ? 1 : 0,
+                    MODES[random.nextInt(MODES.length)],
+                    random.nextInt(3) == 0 ? 1 : 0,
+                    0xFF000000 | random.nextInt(0x1000000),
+                    custom ? (long) (1 + random.nextInt(48)) * 30 * 60 * 1000 : 0L,
+                    random.nextInt(8) == 0 ? 1 : 0,
+                    custom ? random.nextInt(DayMask.ALL_BITS + 1) : 0,
+                    custom && random.nextBoolean() ? (Integer) random.nextInt(720) : null,
+                    custom && random.nextBoolean() ? (Integer) (720 + random.nextInt(720)) : null });
+        }
+        return rows;
+    }
+
+    private static MatrixCursor cursorOf(List<Object[]> rows) {
+        MatrixCursor cursor = new MatrixCursor(COLUMNS, rows.size());
+        for (Object[] row : rows) {
+            cursor.addRow(row);
+        }
+        return cursor;
+    }
+
+    private static void assertRow(Object[] expected, Reminder actual) {
+        String at = "row id " + expected[0];
+        assertEquals(at, ((Integer) expected[0]).intValue(), actual.getId());
+        assertEquals(at, expected[1], actual.getTitle());
+        assertEquals(at, expected[2], actual.getDescription());
+        assertEquals(at, ((Long) expected[3]).longValue(), actual.getTimeMillis());
+        assertEquals(at, (Integer) expected[4] != 0, actual.isAllDay());
+        assertEquals(at, expected[5], actual.getRepeatMode());
+        assertEquals(at, (Integer) expected[6] != 0, actual.isCompleted());
+        assertEquals(at, ((Integer) expected[7]).intValue(), actual.getColor());
+        assertEquals(at, ((Long) expected[8]).longValue(), actual.getRepeatInterval());
+        assertEquals(at, (Integer) expected[9] != 0, actual.isHideFromWidget());
+        assertEquals(at, ((Integer) expected[10]).intValue(), actual.getRepeatDayMask());
+        if (expected[11] == null) {
+            assertNull(at, actual.getWindowStart());
+        } else {
+            assertEquals(at, expected[11], actual.getWindowStart());
+        }
+        if (expected[12] == null) {
+            assertNull(at, actual.getWindowEnd());
+        } else {
+            assertEquals(at, expected[12], actual.getWindowEnd());
+        }
+    }
+
+    // Same parse as the JSON import, without the database writes
+    private static int readJson(byte[] json) throws IOException {
+        int read = 0;
+        try (android.util.JsonReader reader = new android.util.JsonReader(
+                new java.io.InputStreamReader(new ByteArrayInputStream(json), StandardCharsets.UTF_8))) {
+            reader.beginArray();
+            while (reader.hasNext()) {
+                BackupRepository.readReminder(reader);
+                read++;
+            }
+            reader.endArray();
+        }
+        return read;
+    }
+}
@@ -0,0 +1,209 @@
+package com.example.reminder.data;
+
+import static org.junit.Assert.assertEquals;
+
+import android.database.Cursor;
+import androidx.room.migration.Migration;
+import androidx.room.testing.MigrationTestHelper;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteStatement;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+import java.io.File;
+import java.io.IOException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Runs every migration from the oldest exported schema (version 2) against the
+ * schema JSON in app/schemas. The 100k-row runs start from versions 2, 3 and 4 and
+ * log wall time, sampled peak heap and database size per step under the
+ * "MigrationTest" tag.
+ */
+@RunWith(AndroidJUnit4.class)
+public class MigrationTest {
+
+    private static final String TEST_DB = "migration-test";
+    private static final int FIRST_EXPORTED_VERSION = 2;
+    private static final int LATEST_VERSION = 12;
+    private static final int SEED_ROWS = 100_000;
+
+    private static final long BASE_TIME = 1_700_000_000_000L;
+    private static final long STEP_MS = 15 * 60 * 1000L;
+    private static final String WEEKLY_DAYS = "2,4,6"; // Mon, Wed, Fri
+    private static final long SAMPLE_INTERVAL_MS = 2;
+
+    @Rule
+    public MigrationTestHelper helper = new MigrationTestHelper(InstrumentationRegistry.getInstrumentation(),
+            AppDatabase.class);
+
+    @Test
+    public void migrateEachStepFromVersion2With100kRows() throws Exception {
+        migrateEachStep(2);
+    }
+
+    @Test
+    public void migrateEachStepFromVersion3With100kRows() throws Exception {
+        migrateEachStep(3);
+    }
+
+    @Test
+    public void migrateEachStepFromVersion4With100kRows() throws Exception {
+        migrateEachStep(4);
+    }
+
+    @Test
+    public void migrateFromEveryExportedVersionToLatest() throws IOException {
+        Migration[] migrations = AppDatabase.allMigrations();
+        for (int version = FIRST_EXPORTED_VERSION; version < LATEST_VERSION; version++) {
+            String name = TEST_DB + "-" + version;
+            helper.createDatabase(name, version).close();
+            helper.runMigrationsAndValidate(name, LATEST_VERSION, true, migrations).close();
+        }
+    }
+
+    private void migrateEachStep(int fromVersion) throws Exception {
+        String name = TEST_DB + "-seeded-" + fromVersion;
+        SupportSQLiteDatabase db = helper.createDatabase(name, fromVersion);
+        seed(db, fromVersion);
+        db.close();
+
+        File file = InstrumentationRegistry.getInstrumentation().getTargetContext().getDatabasePath(name);
+        for (Migration migration : AppDatabase.allMigrations()) {
+            if (migration.startVersion < fromVersion) {
+                continue;
+            }
+            Runtime.getRuntime().gc();
+            HeapSampler sampler = new HeapSampler();
+            sampler.start();
+            long start = System.nanoTime();
+            try {
+                // Includes reopening the file and validating the result against the next schema
+                db = helper.runMigrationsAndValidate(name, migration.endVersion, true, migration);
+            } finally {
+                sampler.finish();
+            }
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            android.util.Log.i("MigrationTest", "Migration " + migration.startVersion + "->" + migration.endVersion
+                    + " on " + SEED_ROWS + " rows took " + millis + " ms, peak heap " + sampler.peakHeap / 1024
+                    + " KiB, peak native heap " + sampler.peakNative / 1024 + " KiB (sampled every "
+                    + SAMPLE_INTERVAL_MS + " ms), file " + (file.length() / 1024) + " KiB");
+            if (migration.endVersion < LATEST_VERSION) {
+                db.close();
+            }
+        }
+
+        assertEquals(SEED_ROWS, queryLong(db, "SELECT COUNT(*) FROM reminders"));
+        // CSV repeat days became the DayMask bits, only where there were any; versions before 4 had none
+        long weekly = fromVersion >= 4 ? SEED_ROWS / 4 : 0;
+        assertEquals(weekly, queryLong(db, "SELECT COUNT(*) FROM reminders WHERE repeatDayMask = "
+                + DayMask.fromCsv(WEEKLY_DAYS).bits()));
+        assertEquals(SEED_ROWS - weekly, queryLong(db, "SELECT COUNT(*) FROM reminders WHERE repeatDayMask = 0"));
+        // hideFromWidget arrived in 3 with a default of 0
+        assertEquals(fromVersion >= 3 ? SEED_ROWS / 7 : 0,
+                queryLong(db, "SELECT COUNT(*) FROM reminders WHERE hideFromWidget = 1"));
+        // Day buckets were backfilled in the device zone
+        long sampleTime = BASE_TIME + 4242 * STEP_MS;
+        assertEquals(EpochDays.of(sampleTime), queryLong(db, "SELECT localEpochDay FROM reminders WHERE id = 4242"));
+        // The FTS index was built for the existing rows and survived the table rebuild
+        assertEquals(4242, queryLong(db, "SELECT docid FROM reminders_fts WHERE reminders_fts MATCH '4242'"));
+        // The deleted last id stays used after the rebuild in 7->8
+        assertEquals(SEED_ROWS + 1, queryLong(db, "SELECT seq FROM sqlite_sequence WHERE name = 'reminders'"));
+        assertEquals(0, queryLong(db, "SELECT COUNT(*) FROM reminders WHERE deletedAt != 0 OR updatedAt != 0"));
+        db.close();
+    }
+
+    // Rows 1..SEED_ROWS + 1 in the given version's layout; the last one is deleted again so the
+    // autoincrement high-water mark sits above the largest live id
+    private static void seed(SupportSQLiteDatabase db, int version) {
+        StringBuilder columns = new StringBuilder(
+                "title, description, timeMillis, isAllDay, repeatMode, isCompleted, color, repeatInterval");
+        int count = 8;
+        if (version >= 3) {
+            columns.append(", hideFromWidget");
+            count++;
+        }
+        if (version >= 4) {
+            columns.append(", repeatDays, windowStart, windowEnd");
+            count += 3;
+        }
+        StringBuilder values = new StringBuilder("?");
+        for (int i = 1; i < count; i++) {
+            values.append(", ?");
+        }
+        SupportSQLiteStatement insert = db.compileStatement("INSERT INTO reminders (" + columns + ") VALUES ("
+                + values + ")");
+        String[] modes = { "NONE", "DAILY", "WEEKLY", "CUSTOM" };
+        db.beginTransaction();
+        try {
+            for (int i = 1; i <= SEED_ROWS + 1; i++) {
+                String mode = modes[i % 4];
+                insert.clearBindings();
+                insert.bindString(1, "Reminder " + i);
+                if (i % 3 == 0) {
+                    insert.bindNull(2);
+                } else {
+                    insert.bindString(2, "Seeded row " + i);
+                }
+                insert.bindLong(3, BASE_TIME + i * STEP_MS);
+                insert.bindLong(4, i % 10 == 0 ? 1 : 0);
+                insert.bindString(5, mode);
+                insert.bindLong(6, i % 5 == 0 ? 1 : 0);
+                insert.bindLong(7, 0xFF000000L | (i * 2654435761L & 0xFFFFFF));
+                insert.bindLong(8, "CUSTOM".equals(mode) ? 60 * 60 * 1000L : 0);
+                if (version >= 3) {
+                    insert.bindLong(9, i % 7 == 0 ? 1 : 0);
+                }
+                if (version >= 4) {
+                    if ("WEEKLY".equals(mode)) {
+                        insert.bindString(10, WEEKLY_DAYS);
+                    } else {
+                        insert.bindNull(10);
+                    }
+                    if ("CUSTOM".equals(mode)) {
+                        insert.bindLong(11, 8 * 60);
+                        insert.bindLong(12, 20 * 60);
+                    } else {
+                        insert.bindNull(11);
+                        insert.bindNull(12);
+                    }
+                }
+                insert.executeInsert();
+            }
+            db.execSQL("DELETE FROM reminders WHERE id = " + (SEED_ROWS + 1));
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /** Polls used Java and native heap while a migration runs and keeps the highest of each. */
+    private static final class HeapSampler extends Thread {
+        private volatile boolean running = true;
+        volatile long peakHeap;
+        volatile long peakNative;
+
+        @Override
+        public void run() {
+            Runtime runtime = Runtime.getRuntime();
+            do {
+                peakHeap = Math.max(peakHeap, runtime.totalMemory() - runtime.freeMemory());
+                peakNative = Math.max(peakNative, android.os.Debug.getNativeHeapAllocatedSize());
+                android.os.SystemClock.sleep(SAMPLE_INTERVAL_MS);
+            } while (running);
+        }
+
+        void finish() throws InterruptedException {
+            running = false;
+            join();
+        }
+    }
+
+    private static long queryLong(SupportSQLiteDatabase db, String sql) {
+        try (Cursor cursor = db.query(sql)) {
+            cursor.moveToFirst();
+            return cursor.getLong(0);
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package com.example.reminder.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import android.database.Cursor;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.Observer;
+import androidx.room.Room;
+import androidx.sqlite.db.SimpleSQLiteQuery;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * EXPLAIN QUERY PLAN for every query of {@link ReminderDao} and {@link ChangeLogDao}.
+ * Each DAO method is called against an in-memory database and the SQL Room actually
+ * runs is captured through a query callback, so the plans follow the DAO as it
+ * changes. A plan may not scan a whole table or sort in a temp B-tree unless the
+ * method is listed in {@link #ALLOWED} with the reason it is bounded anyway.
+ */
+@RunWith(AndroidJUnit4.class)
+public class QueryPlanTest {
+
+    private static final String ACTIVE_INDEX = "index_reminders_deletedAt_isCompleted_timeMillis";
+    private static final String WIDGET_INDEX = "index_reminders_deletedAt_isCompleted_hideFromWidget_timeMillis";
+    private static final String PRIMARY_KEY = "INTEGER PRIMARY KEY";
+
+    // Plan steps a method may contain although they would fail the general rule
+    private static final Map<String, List<String>> ALLOWED = new HashMap<>();
+    // Index a method's plan has to name
+    private static final Map<String, String> EXPECTED_INDEX = new HashMap<>();
+
+    static {
+        // Counts every row of both tables by definition; only run before a restore
+        ALLOWED.put("ReminderDao.countAllRows", Arrays.asList("SCAN reminders", "SCAN archived_reminders"));
+        // One pass over the occurrences key, grouped per reminder; at most MAX_PER_REMINDER rows each
+        ALLOWED.put("ReminderDao.getRemindersNeedingTopUp", Collections.singletonList("SCAN occurrences"));
+        // Ranks only the rows the FTS match returned, cut to the page limit
+        ALLOWED.put("ReminderDao.searchMatching", Collections.singletonList("TEMP B-TREE FOR ORDER BY"));
+        // De-duplicates and sorts only the ids changed since the last backup
+        ALLOWED.put("ChangeLogDao.getChangedRemindersCursor", Arrays.asList("TEMP B-TREE FOR DISTINCT", "SCAN c",
+                "SCAN SUBQUERY", "TEMP B-TREE FOR ORDER BY"));
+        ALLOWED.put("ChangeLogDao.getRemovedIds", Collections.singletonList("TEMP B-TREE FOR DISTINCT"));
+        // Walks the log in seq order and stops at the first entry newer than the cutoff
+        ALLOWED.put("ChangeLogDao.trimOlderThan", Collections.singletonList("SCAN change_log"));
+
+        EXPECTED_INDEX.put("ReminderDao.getActiveReminders", ACTIVE_INDEX);
+        EXPECTED_INDEX.put("ReminderDao.getActiveRemindersSync", ACTIVE_INDEX);
+        EXPECTED_INDEX.put("ReminderDao.getNextDueTime", ACTIVE_INDEX);
+        EXPECTED_INDEX.put("ReminderDao.getDueRemindersSync", ACTIVE_INDEX);
+        EXPECTED_INDEX.put("ReminderDao.getWidgetRowsSync", WIDGET_INDEX);
+        EXPECTED_INDEX.put("ReminderDao.getStaleRepeatsChunk", PRIMARY_KEY);
+        EXPECTED_INDEX.put("ChangeLogDao.getChangedRemindersCursor", PRIMARY_KEY);
+    }
+
+    private AppDatabase database;
+    private ReminderDao reminderDao;
+    private ChangeLogDao changeLogDao;
+    private final List<Statement> captured = Collections.synchronizedList(new ArrayList<>());
+    private volatile boolean capturing;
+
+    private static final class Statement {
+        final String sql;
+        final Object[] args;
+
+        Statement(String sql, Object[] args) {
+            this.sql = sql;
+            this.args = args;
+        }
+    }
+
+    @Before
+    public void createDatabase() {
+        database = Room.inMemoryDatabaseBuilder(ApplicationProvider.getApplicationContext(), AppDatabase.class)
+                .setQueryCallback((sql, args) -> {
+                    if (capturing && isDaoStatement(sql)) {
+                        captured.add(new Statement(sql, args.toArray()));
+                    }
+                }, Runnable::run)
+                .build();
+        reminderDao = database.reminderDao();
+        changeLogDao = database.changeLogDao();
+
+        List<Reminder> seed = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            seed.add(reminder(i % 3 == 0 ? "DAILY" : "NONE", 1_000_000L * i));
+        }
+        reminderDao.upsertReminders(seed);
+        List<ChangeLogEntry> entries = new ArrayList<>();
+        for (int i = 1; i <= 20; i++) {
+            entries.add(new ChangeLogEntry(i, ChangeLogEntry.OP_UPSERT, i));
+        }
+        changeLogDao.insertEntries(entries);
+    }
+
+    @After
+    public void closeDatabase() {
+        database.close();
+    }
+
+    @Test
+    public void everyDaoQueryIsServedByAnIndex() throws Exception {
+        Map<String, Callable<?>> calls = daoCalls();
+        assertEquals("Add new DAO methods to daoCalls()", daoMethods(), new TreeSet<>(calls.keySet()));
+
+        for (Map.Entry<String, Callable<?>> call : calls.entrySet()) {
+            String method = call.getKey();
+            captured.clear();
+            capturing = true;
+            try {
+                finish(call.getValue().call());
+            } finally {
+                capturing = false;
+            }
+            List<Statement> statements;
+            synchronized (captured) {
+                statements = new ArrayList<>(captured);
+            }
+            assertFalse(method + " ran no SQL", statements.isEmpty());
+            for (Statement statement : statements) {
+                assertPlan(method, statement);
+            }
+        }
+    }
+
+    private Map<String, Callable<?>> daoCalls() {
+        Map<String, Callable<?>> calls = new LinkedHashMap<>();
+        List<Integer> ids = Arrays.asList(1, 2, 3);
+        calls.put("ReminderDao.insertReminder", () -> reminderDao.insertReminder(reminder("NONE", 5)));
+        calls.put("ReminderDao.upsertReminders",
+                () -> reminderDao.upsertReminders(Collections.singletonList(reminder("NONE", 6))));
+        calls.put("ReminderDao.updateReminder", () -> {
+            reminderDao.updateReminder(edited(reminderDao.getReminderByIdSync(4)));
+            return null;
+        });
+        calls.put("ReminderDao.updateReminders", () -> {
+            reminderDao.updateReminders(Collections.singletonList(edited(reminderDao.getReminderByIdSync(5))));
+            return null;
+        });
+        calls.put("ReminderDao.setDeletedAt", () -> {
+            reminderDao.setDeletedAt(Arrays.asList(6, 7), 100, 100);
+            return null;
+        });
+        calls.put("ReminderDao.countAllRows", reminderDao::countAllRows);
+        calls.put("ReminderDao.getDeletedIds", () -> reminderDao.getDeletedIds(ids));
+        calls.put("ReminderDao.purgeTombstones", () -> reminderDao.purgeTombstones(50));
+        calls.put("ReminderDao.getAllReminders", reminderDao::getAllReminders);
+        calls.put("ReminderDao.getAllRemindersSync", reminderDao::getAllRemindersSync);
+        calls.put("ReminderDao.getAllRemindersCursor", reminderDao::getAllRemindersCursor);
+        calls.put("ReminderDao.getFirstPage", () -> reminderDao.getFirstPage(5));
+        calls.put("ReminderDao.getPageAfter", () -> reminderDao.getPageAfter(5_000_000L, 5, 5));
+        calls.put("ReminderDao.getPageBefore", () -> reminderDao.getPageBefore(5_000_000L, 5, 5));
+        calls.put("ReminderDao.getRemindersBetween", () -> reminderDao.getRemindersBetween(0, 10_000_000L));
+        calls.put("ReminderDao.getRemindersBetweenSync", () -> reminderDao.getRemindersBetweenSync(0, 10_000_000L));
+        calls.put("ReminderDao.getListRowsBetween", () -> reminderDao.getListRowsBetween(0, 10_000_000L));
+        calls.put("ReminderDao.getRemindersFiringBetween",
+                () -> reminderDao.getRemindersFiringBetween(0, 10_000_000L));
+        calls.put("ReminderDao.getReminderById", () -> reminderDao.getReminderById(2));
+        calls.put("ReminderDao.getReminderByIdSync", () -> reminderDao.getReminderByIdSync(2));
+        calls.put("ReminderDao.getActiveReminders", reminderDao::getActiveReminders);
+        calls.put("ReminderDao.getActiveRemindersSync", reminderDao::getActiveRemindersSync);
+        calls.put("ReminderDao.getRemindersNeedingTopUp", () -> reminderDao.getRemindersNeedingTopUp(1_000L, 32));
+        calls.put("ReminderDao.getSeriesTailsSync", reminderDao::getSeriesTailsSync);
+        calls.put("ReminderDao.getNextDueTime", () -> reminderDao.getNextDueTime(0));
+        calls.put("ReminderDao.getDueRemindersSync", () -> reminderDao.getDueRemindersSync(0, 10_000_000L));
+        calls.put("ReminderDao.getStaleRepeatsChunk", () -> reminderDao.getStaleRepeatsChunk(0, 10_000_000L, 10));
+        calls.put("ReminderDao.getWidgetRowsSync", reminderDao::getWidgetRowsSync);
+        calls.put("ReminderDao.searchMatching", () -> reminderDao.searchMatching("rem*", "title:rem*", 10));
+        calls.put("ReminderDao.deleteReminder", () -> {
+            reminderDao.deleteReminder(reminderDao.getReminderByIdSync(8));
+            return null;
+        });
+        calls.put("ReminderDao.deleteReminders", () -> {
+            reminderDao.deleteReminders(Collections.singletonList(reminderDao.getReminderByIdSync(9)));
+            return null;
+        });
+
+        calls.put("ChangeLogDao.insertEntries", () -> {
+            changeLogDao.insertEntries(Collections.singletonList(new ChangeLogEntry(1, ChangeLogEntry.OP_DELETE, 30)));
+            return null;
+        });
+        calls.put("ChangeLogDao.getChangedRemindersCursor", () -> changeLogDao.getChangedRemindersCursor(5));
+        calls.put("ChangeLogDao.getRemovedIds", () -> changeLogDao.getRemovedIds(5));
+        calls.put("ChangeLogDao.countAfter", () -> changeLogDao.countAfter(5));
+        calls.put("ChangeLogDao.trimThrough", () -> changeLogDao.trimThrough(2));
+        calls.put("ChangeLogDao.trimOlderThan", () -> changeLogDao.trimOlderThan(10));
+        return calls;
+    }
+
+    // The abstract methods Room implements; default methods only delegate to them
+    private static TreeSet<String> daoMethods() {
+        TreeSet<String> names = new TreeSet<>();
+        for (Class<?> dao : new Class<?>[] { ReminderDao.class, ChangeLogDao.class }) {
+            for (Method method : dao.getDeclaredMethods()) {
+                if (Modifier.isAbstract(method.getModifiers())) {
+                    names.add(dao.getSimpleName() + "." + method.getName());
+                }
+            }
+        }
+        return names;
+    }
+
+    private void assertPlan(String method, Statement statement) {
+        List<String> plan = new ArrayList<>();
+        try (Cursor cursor = database.getOpenHelper().getWritableDatabase()
+                .query(new SimpleSQLiteQuery("EXPLAIN QUERY PLAN " + statement.sql, statement.args))) {
+            int detail = cursor.getColumnIndexOrThrow("detail");
+            while (cursor.moveToNext()) {
+                // Older SQLite says "SCAN TABLE t" / "SEARCH TABLE t"; newer drops the TABLE
+                plan.add(cursor.getString(detail).replace("SCAN TABLE ", "SCAN ").replace("SEARCH TABLE ", "SEARCH "));
+            }
+        }
+        List<String> allowed = ALLOWED.containsKey(method) ? ALLOWED.get(method) : Collections.emptyList();
+        String context = method + ": " + statement.sql + " -> " + plan;
+        for (String step : plan) {
+            boolean fullScan = step.startsWith("SCAN ") && !step.contains("VIRTUAL TABLE")
+                    && !step.equals("SCAN CONSTANT ROW");
+            if ((fullScan || step.contains("TEMP B-TREE")) && !isAllowed(step, allowed)) {
+                fail("Not served by an index: " + context);
+            }
+        }
+        String index = EXPECTED_INDEX.get(method);
+        if (index != null && statement.sql.trim().toUpperCase(java.util.Locale.ROOT).startsWith("SELECT")) {
+            boolean found = false;
+            for (String step : plan) {
+                found |= step.contains(index);
+            }
+            assertTrue("Expected " + index + " in " + context, found);
+        }
+    }
+
+    private static boolean isAllowed(String step, List<String> allowed) {
+        for (String pattern : allowed) {
+            if (step.contains(pattern)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Room's own bookkeeping (invalidation log, transactions) is not DAO SQL
+    private static boolean isDaoStatement(String sql) {
+        String upper = sql.trim().toUpperCase(java.util.Locale.ROOT);
+        return !upper.contains("ROOM_TABLE_MODIFICATION_LOG") && (upper.startsWith("SELECT")
+                || upper.startsWith("UPDATE") || upper.startsWith("DELETE") || upper.startsWith("INSERT"));
+    }
+
+    // Runs a LiveData query by observing it once; closes cursors
+    private static void finish(Object result) throws InterruptedException {
+        if (result instanceof Cursor) {
+            ((Cursor) result).close();
+        } else if (result instanceof LiveData) {
+            LiveData<?> liveData = (LiveData<?>) result;
+            CountDownLatch loaded = new CountDownLatch(1);
+            Observer<Object> observer = value -> loaded.countDown();
+            InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> liveData.observeForever(observer));
+            assertTrue("LiveData never loaded", loaded.await(5, TimeUnit.SECONDS));
+            InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> liveData.removeObserver(observer));
+        }
+    }
+
+    private static Reminder reminder(String repeatMode, long timeMillis) {
+        Reminder reminder = new Reminder();
+        reminder.setTitle("Reminder at " + timeMillis);
+        reminder.setTimeMillis(timeMillis);
+        reminder.setRepeatMode(repeatMode);
+        return reminder;
+    }
+
+    private static Reminder edited(Reminder reminder) {
+        reminder.setTitle(reminder.getTitle() + " (edited)");
+        return reminder;
+    }
+}
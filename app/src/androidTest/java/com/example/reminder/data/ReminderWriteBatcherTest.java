@@ -0,0 +1,96 @@
+package com.example.reminder.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * The writer stamps its own copies: the reminders callers pass in stay as they
+ * were, and the written values come back through the futures.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ReminderWriteBatcherTest {
+
+    private AppDatabase database;
+    private ReminderRepository repository;
+
+    @Before
+    public void createDatabase() {
+        database = Room.inMemoryDatabaseBuilder(ApplicationProvider.getApplicationContext(), AppDatabase.class)
+                .build();
+        repository = new ReminderRepository(database.reminderDao(), database, new QueryMetrics());
+    }
+
+    @After
+    public void closeDatabase() {
+        database.close();
+    }
+
+    @Test
+    public void insertLeavesTheCallersReminderAlone() throws Exception {
+        Reminder reminder = reminder(System.currentTimeMillis() + 60_000L);
+        Reminder written = await(repository.insert(reminder));
+
+        assertEquals(0, reminder.getId());
+        assertEquals(0, reminder.getUpdatedAt());
+        assertEquals(0, reminder.getLocalEpochDay());
+
+        assertNotEquals(0, written.getId());
+        assertTrue(written.getUpdatedAt() > 0);
+        assertEquals(EpochDays.of(written.getTimeMillis()), written.getLocalEpochDay());
+        Reminder stored = database.reminderDao().getReminderByIdSync(written.getId());
+        assertEquals(written.getUpdatedAt(), stored.getUpdatedAt());
+    }
+
+    @Test
+    public void deleteAndUndoYieldTheWrittenDeletedAt() throws Exception {
+        Reminder written = await(repository.insert(reminder(System.currentTimeMillis() + 60_000L)));
+
+        List<Reminder> deleted = await(repository.delete(written));
+        assertEquals(0, written.getDeletedAt());
+        assertTrue(deleted.get(0).getDeletedAt() > 0);
+
+        List<Reminder> restored = await(repository.undoDelete());
+        assertEquals(written.getId(), restored.get(0).getId());
+        assertEquals(0, restored.get(0).getDeletedAt());
+        assertEquals(0, database.reminderDao().getReminderByIdSync(written.getId()).getDeletedAt());
+    }
+
+    @Test
+    public void coalescedUpdatesAllYieldTheLastWrite() throws Exception {
+        Reminder written = await(repository.insert(reminder(System.currentTimeMillis() + 60_000L)));
+
+        Reminder first = new Reminder(written);
+        first.setTitle("First");
+        Reminder second = new Reminder(written);
+        second.setTitle("Second");
+        com.google.common.util.concurrent.ListenableFuture<Reminder> firstWrite = repository.update(first);
+        Reminder secondWritten = await(repository.update(second));
+
+        assertEquals("Second", secondWritten.getTitle());
+        assertEquals("Second", firstWrite.get().getTitle());
+        assertEquals("First", first.getTitle());
+    }
+
+    private <T> T await(com.google.common.util.concurrent.ListenableFuture<T> future) throws Exception {
+        repository.flush(); // Commit now rather than after the coalescing window
+        return future.get();
+    }
+
+    private static Reminder reminder(long timeMillis) {
+        Reminder reminder = new Reminder();
+        reminder.setTitle("Reminder");
+        reminder.setTimeMillis(timeMillis);
+        reminder.setRepeatMode("NONE");
+        return reminder;
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.reminder.data;
+
+import static org.junit.Assert.assertEquals;
+
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Calendar reads past what {@link OccurrenceExpander} stores: stored occurrences plus
+ * the on-the-fly tails have to give the full series, with no gaps or duplicates.
+ */
+@RunWith(AndroidJUnit4.class)
+public class SeriesTailTest {
+
+    private static final long HOUR_MS = 60 * 60 * 1000L;
+    private static final long DAY_MS = 24 * HOUR_MS;
+
+    private AppDatabase database;
+    private ReminderRepository repository;
+    private long now;
+
+    @Before
+    public void createDatabase() {
+        database = Room.inMemoryDatabaseBuilder(ApplicationProvider.getApplicationContext(), AppDatabase.class)
+                .build();
+        repository = new ReminderRepository(database.reminderDao(), database, new QueryMetrics());
+        now = System.currentTimeMillis();
+    }
+
+    @After
+    public void closeDatabase() {
+        database.close();
+    }
+
+    @Test
+    public void hourlySeriesContinuesPastTheCap() {
+        long first = now + HOUR_MS;
+        insertExpanded("HOURLY", first);
+        // Day 3 is past the 32 stored hours
+        long start = first + 3 * DAY_MS;
+        assertSeries(first, HOUR_MS, start, start + DAY_MS);
+        // The stored/tail boundary itself
+        assertSeries(first, HOUR_MS, first, first + 2 * DAY_MS);
+    }
+
+    @Test
+    public void dailySeriesContinuesPastTheHorizon() {
+        long first = now + HOUR_MS;
+        insertExpanded("DAILY", first);
+        long start = first + OccurrenceExpander.HORIZON_MS + 60 * DAY_MS;
+        assertSeries(first, DAY_MS, start - HOUR_MS, start + 30 * DAY_MS);
+    }
+
+    @Test
+    public void seriesWithoutStoredOccurrencesIncludesItsOwnTime() {
+        long first = now + HOUR_MS;
+        Reminder reminder = reminder("DAILY", first);
+        reminder.setId((int) database.reminderDao().insertReminder(reminder));
+        // Not expanded, so everything comes from the tail
+        assertSeries(first, DAY_MS, first - HOUR_MS, first + 10 * DAY_MS);
+    }
+
+    private void insertExpanded(String repeatMode, long first) {
+        Reminder reminder = reminder(repeatMode, first);
+        int id = (int) database.reminderDao().insertReminder(reminder);
+        reminder.setId(id);
+        new OccurrenceExpander(database.occurrenceDao()).sync(id, reminder, now);
+    }
+
+    // Stored plus tail rows in [start, end) are exactly first + k * step
+    private void assertSeries(long first, long step, long start, long end) {
+        List<Long> actual = new ArrayList<>();
+        for (Occurrence occurrence : database.occurrenceDao().getBetweenSync(start, end)) {
+            actual.add(occurrence.getFireTime());
+        }
+        for (Reminder row : repository.getSeriesTailsBetweenSync(start, end)) {
+            assertEquals(EpochDays.of(row.getTimeMillis()), row.getLocalEpochDay());
+            actual.add(row.getTimeMillis());
+        }
+        java.util.Collections.sort(actual);
+
+        List<Long> expected = new ArrayList<>();
+        for (long time = first; time < end; time += step) {
+            if (time >= start) {
+                expected.add(time);
+            }
+        }
+        assertEquals(expected, actual);
+    }
+
+    private static Reminder reminder(String repeatMode, long timeMillis) {
+        Reminder reminder = new Reminder();
+        reminder.setTitle(repeatMode + " reminder");
+        reminder.setTimeMillis(timeMillis);
+        reminder.setRepeatMode(repeatMode);
+        return reminder;
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.reminder.widget;
+
+import static org.junit.Assert.assertEquals;
+
+import android.content.Context;
+import androidx.room.Room;
+import androidx.room.RoomDatabase;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import com.example.reminder.data.AppDatabase;
+import com.example.reminder.data.Reminder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Measures the data load behind the widget's onDataSetChanged both ways the
+ * factory has done it: opening its own Room instance per factory (before), and
+ * querying the app's already open singleton (now). Medians of each are logged
+ * under the "WidgetLoadBenchmark" tag; only the row counts are asserted, since
+ * wall-clock timings on a device are too noisy to gate a test run on.
+ */
+@RunWith(AndroidJUnit4.class)
+public class WidgetLoadBenchmarkTest {
+
+    private static final String DB_NAME = "widget-benchmark";
+    private static final int ROWS = 2_000;
+    private static final int RUNS = 15;
+
+    private Context context;
+    private AppDatabase shared;
+
+    @Before
+    public void seed() {
+        context = ApplicationProvider.getApplicationContext();
+        context.deleteDatabase(DB_NAME);
+        shared = open();
+        List<Reminder> reminders = new ArrayList<>(ROWS);
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < ROWS; i++) {
+            Reminder reminder = new Reminder();
+            reminder.setTitle("Reminder " + i);
+            reminder.setTimeMillis(now + i * 60_000L);
+            reminder.setRepeatMode("NONE");
+            reminder.setCompleted(i % 4 == 0);
+            reminder.setHideFromWidget(i % 10 == 0);
+            reminders.add(reminder);
+        }
+        shared.reminderDao().upsertReminders(reminders);
+    }
+
+    @After
+    public void cleanUp() {
+        shared.close();
+        context.deleteDatabase(DB_NAME);
+    }
+
+    @Test
+    public void bothLoadsReturnTheSameRows() {
+        int expected = shared.reminderDao().getWidgetRowsSync().size(); // Also warms the shared instance
+
+        long[] ownNanos = new long[RUNS];
+        long[] sharedNanos = new long[RUNS];
+        for (int run = 0; run < RUNS; run++) {
+            // Before: every factory built, opened and validated its own instance
+            long start = System.nanoTime();
+            AppDatabase own = open();
+            int ownRows = own.reminderDao().getWidgetRowsSync().size();
+            ownNanos[run] = System.nanoTime() - start;
+            own.close();
+
+            start = System.nanoTime();
+            int sharedRows = shared.reminderDao().getWidgetRowsSync().size();
+            sharedNanos[run] = System.nanoTime() - start;
+
+            assertEquals(expected, ownRows);
+            assertEquals(expected, sharedRows);
+        }
+
+        long ownMedian = median(ownNanos);
+        long sharedMedian = median(sharedNanos);
+        android.util.Log.i("WidgetLoadBenchmark", expected + " widget rows: own instance " + ownMedian / 1000
+                + " us, shared instance " + sharedMedian / 1000 + " us (median of " + RUNS + ")");
+    }
+
+    private AppDatabase open() {
+        return Room.databaseBuilder(context, AppDatabase.class, DB_NAME)
+                .addMigrations(AppDatabase.allMigrations())
+                .setJournalMode(RoomDatabase.JournalMode.WRITE_AHEAD_LOGGING)
+                .build();
+    }
+
+    private static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}
@@ -1,12 +1,30 @@
 package com.example.reminder;
 
 import android.app.Application;
+import com.example.reminder.data.ArchiveWorker;
+import com.example.reminder.data.ReminderRepository;
+import com.example.reminder.data.TombstonePurgeWorker;
+import com.example.reminder.receiver.AlarmScheduler;
 import dagger.hilt.android.HiltAndroidApp;
+import javax.inject.Inject;
 
 @HiltAndroidApp
 public class ReminderApp extends Application {
+
+    @Inject
+    ReminderRepository repository;
+
+    @Inject
+    AlarmScheduler alarmScheduler;
+
     @Override
     public void onCreate() {
         super.onCreate();
+        // Roll the occurrence horizon forward (off the main thread)
+        repository.topUpOccurrences();
+        // Arms the single next-due alarm; it then follows every write by itself
+        alarmScheduler.reschedule();
+        TombstonePurgeWorker.schedule(this);
+        ArchiveWorker.schedule(this);
     }
 }
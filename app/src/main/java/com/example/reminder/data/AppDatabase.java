@@ -3,10 +3,17 @@ package com.example.reminder.data;
 import androidx.room.Database;
 import androidx.room.RoomDatabase;
 
-@Database(entities = { Reminder.class }, version = 4, exportSchema = false)
+@Database(entities = { Reminder.class, ReminderFts.class, Occurrence.class,
+        ArchivedReminder.class, ChangeLogEntry.class }, version = 12, exportSchema = true)
 public abstract class AppDatabase extends RoomDatabase {
     public abstract ReminderDao reminderDao();
 
+    public abstract OccurrenceDao occurrenceDao();
+
+    public abstract ArchiveDao archiveDao();
+
+    public abstract ChangeLogDao changeLogDao();
+
     public static final androidx.room.migration.Migration MIGRATION_2_3 = new androidx.room.migration.Migration(2, 3) {
         @Override
         public void migrate(androidx.sqlite.db.SupportSQLiteDatabase database) {
@@ -24,4 +31,189 @@ public abstract class AppDatabase extends RoomDatabase {
             database.execSQL("ALTER TABLE reminders ADD COLUMN windowEnd INTEGER");
         }
     };
+
+    public static final androidx.room.migration.Migration MIGRATION_4_5 = new androidx.room.migration.Migration(4, 5) {
+        @Override
+        public void migrate(androidx.sqlite.db.SupportSQLiteDatabase database) {
+            // Index timeMillis so date-range reads (calendar) are bounded index scans
+            database.execSQL("CREATE INDEX IF NOT EXISTS index_reminders_timeMillis ON reminders (timeMillis)");
+            // Composite indexes matching the active/widget filters, already ordered by timeMillis
+            database.execSQL("CREATE INDEX IF NOT EXISTS index_reminders_isCompleted_timeMillis "
+                    + "ON reminders (isCompleted, timeMillis)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS index_reminders_isCompleted_hideFromWidget_timeMillis "
+                    + "ON reminders (isCompleted, hideFromWidget, timeMillis)");
+        }
+    };
+
+    public static final androidx.room.migration.Migration MIGRATION_5_6 = new androidx.room.migration.Migration(5, 6) {
+        @Override
+        public void migrate(androidx.sqlite.db.SupportSQLiteDatabase database) {
+            // Persisted local day for integer day bucketing, backfilled in the current zone
+            database.execSQL("ALTER TABLE reminders ADD COLUMN localEpochDay INTEGER NOT NULL DEFAULT 0");
+            database.execSQL("CREATE INDEX IF NOT EXISTS index_reminders_localEpochDay ON reminders (localEpochDay)");
+            EpochDays.recomputeAll(database, Runnable::run); // Already inside the migration's transaction
+        }
+    };
+
+    public static final androidx.room.migration.Migration MIGRATION_6_7 = new androidx.room.migration.Migration(6, 7) {
+        @Override
+        public void migrate(androidx.sqlite.db.SupportSQLiteDatabase database) {
+            // External-content FTS4 table plus the sync triggers Room generates for it
+            database.execSQL("CREATE VIRTUAL TABLE IF NOT EXISTS `reminders_fts` USING FTS4("
+                    + "`title` TEXT, `description` TEXT, content=`reminders`)");
+            createFtsTriggers(database);
+            // Index the existing rows
+            database.execSQL("INSERT INTO reminders_fts(reminders_fts) VALUES ('rebuild')");
+        }
+    };
+
+    public static final androidx.room.migration.Migration MIGRATION_7_8 = new androidx.room.migration.Migration(7, 8) {
+        @Override
+        public void migrate(androidx.sqlite.db.SupportSQLiteDatabase database) {
+            // Replace the CSV repeatDays column with an integer DayMask. SQLite on older
+            // devices cannot drop columns, so rebuild the table with the same rowids.
+            database.execSQL("CREATE TABLE IF NOT EXISTS `reminders_new` ("
+                    + "`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, `title` TEXT, `description` TEXT, "
+                    + "`timeMillis` INTEGER NOT NULL, `isAllDay` INTEGER NOT NULL, `repeatMode` TEXT, "
+                    + "`isCompleted` INTEGER NOT NULL, `color` INTEGER NOT NULL, `repeatInterval` INTEGER NOT NULL, "
+                    + "`hideFromWidget` INTEGER NOT NULL, `repeatDayMask` INTEGER NOT NULL, "
+                    + "`windowStart` INTEGER, `windowEnd` INTEGER, `localEpochDay` INTEGER NOT NULL)");
+            database.execSQL("INSERT INTO reminders_new (id, title, description, timeMillis, isAllDay, repeatMode, "
+                    + "isCompleted, color, repeatInterval, hideFromWidget, repeatDayMask, windowStart, windowEnd, "
+                    + "localEpochDay) SELECT id, title, description, timeMillis, isAllDay, repeatMode, isCompleted, "
+                    + "color, repeatInterval, hideFromWidget, 0, windowStart, windowEnd, localEpochDay FROM reminders");
+
+            // One-time conversion of the CSV values
+            androidx.sqlite.db.SupportSQLiteStatement update = database
+                    .compileStatement("UPDATE reminders_new SET repeatDayMask = ? WHERE id = ?");
+            try (android.database.Cursor cursor = database.query(
+                    "SELECT id, repeatDays FROM reminders WHERE repeatDays IS NOT NULL AND repeatDays != ''")) {
+                while (cursor.moveToNext()) {
+                    update.bindLong(1, DayMask.fromCsv(cursor.getString(1)).bits());
+                    update.bindLong(2, cursor.getInt(0));
+                    update.executeUpdateDelete();
+                }
+            }
+
+            // Keep the autoincrement high-water mark so deleted ids are not reused
+            database.execSQL("UPDATE sqlite_sequence SET seq = MAX(seq, COALESCE("
+                    + "(SELECT seq FROM sqlite_sequence WHERE name = 'reminders'), 0)) WHERE name = 'reminders_new'");
+
+            // The FTS sync triggers belong to the old table; recreate them after the swap
+            database.execSQL("DROP TRIGGER IF EXISTS room_fts_content_sync_reminders_fts_BEFORE_UPDATE");
+            database.execSQL("DROP TRIGGER IF EXISTS room_fts_content_sync_reminders_fts_BEFORE_DELETE");
+            database.execSQL("DROP TRIGGER IF EXISTS room_fts_content_sync_reminders_fts_AFTER_UPDATE");
+            database.execSQL("DROP TRIGGER IF EXISTS room_fts_content_sync_reminders_fts_AFTER_INSERT");
+            database.execSQL("DROP TABLE reminders");
+            database.execSQL("ALTER TABLE reminders_new RENAME TO reminders");
+
+            database.execSQL("CREATE INDEX IF NOT EXISTS index_reminders_timeMillis ON reminders (timeMillis)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS index_reminders_localEpochDay ON reminders (localEpochDay)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS index_reminders_isCompleted_timeMillis "
+                    + "ON reminders (isCompleted, timeMillis)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS index_reminders_isCompleted_hideFromWidget_timeMillis "
+                    + "ON reminders (isCompleted, hideFromWidget, timeMillis)");
+            createFtsTriggers(database);
+        }
+    };
+
+    public static final androidx.room.migration.Migration MIGRATION_8_9 = new androidx.room.migration.Migration(8, 9) {
+        @Override
+        public void migrate(androidx.sqlite.db.SupportSQLiteDatabase database) {
+            // Expanded upcoming occurrences; filled by the repository's top-up on next start
+            database.execSQL("CREATE TABLE IF NOT EXISTS `occurrences` (`reminderId` INTEGER NOT NULL, "
+                    + "`fireTime` INTEGER NOT NULL, `localEpochDay` INTEGER NOT NULL, "
+                    + "PRIMARY KEY(`reminderId`, `fireTime`))");
+            database.execSQL("CREATE INDEX IF NOT EXISTS index_occurrences_fireTime ON occurrences (fireTime)");
+        }
+    };
+
+    public static final androidx.room.migration.Migration MIGRATION_9_10 = new androidx.room.migration.Migration(9, 10) {
+        @Override
+        public void migrate(androidx.sqlite.db.SupportSQLiteDatabase database) {
+            // Soft deletes; live-row indexes now lead with deletedAt
+            database.execSQL("ALTER TABLE reminders ADD COLUMN deletedAt INTEGER NOT NULL DEFAULT 0");
+            database.execSQL("DROP INDEX IF EXISTS index_reminders_timeMillis");
+            database.execSQL("DROP INDEX IF EXISTS index_reminders_isCompleted_timeMillis");
+            database.execSQL("DROP INDEX IF EXISTS index_reminders_isCompleted_hideFromWidget_timeMillis");
+            database.execSQL("CREATE INDEX IF NOT EXISTS index_reminders_deletedAt_timeMillis "
+                    + "ON reminders (deletedAt, timeMillis)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS index_reminders_deletedAt_isCompleted_timeMillis "
+                    + "ON reminders (deletedAt, isCompleted, timeMillis)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS index_reminders_deletedAt_isCompleted_hideFromWidget_timeMillis "
+                    + "ON reminders (deletedAt, isCompleted, hideFromWidget, timeMillis)");
+        }
+    };
+
+    public static final androidx.room.migration.Migration MIGRATION_10_11 = new androidx.room.migration.Migration(10, 11) {
+        @Override
+        public void migrate(androidx.sqlite.db.SupportSQLiteDatabase database) {
+            // Cold storage for old completed reminders, filled by ArchiveWorker
+            database.execSQL("CREATE TABLE IF NOT EXISTS `archived_reminders` (`id` INTEGER NOT NULL, "
+                    + "`title` TEXT, `description` TEXT, `timeMillis` INTEGER NOT NULL, `isAllDay` INTEGER NOT NULL, "
+                    + "`repeatMode` TEXT, `color` INTEGER NOT NULL, `repeatInterval` INTEGER NOT NULL, "
+                    + "`repeatDayMask` INTEGER NOT NULL, `windowStart` INTEGER, `windowEnd` INTEGER, "
+                    + "`archivedAt` INTEGER NOT NULL, PRIMARY KEY(`id`))");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_archived_reminders_timeMillis` "
+                    + "ON `archived_reminders` (`timeMillis`)");
+        }
+    };
+
+    public static final androidx.room.migration.Migration MIGRATION_11_12 = new androidx.room.migration.Migration(11, 12) {
+        @Override
+        public void migrate(androidx.sqlite.db.SupportSQLiteDatabase database) {
+            // Change tracking for incremental backups
+            database.execSQL("ALTER TABLE reminders ADD COLUMN updatedAt INTEGER NOT NULL DEFAULT 0");
+            database.execSQL("CREATE TABLE IF NOT EXISTS `change_log` ("
+                    + "`seq` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, `reminderId` INTEGER NOT NULL, "
+                    + "`op` INTEGER NOT NULL, `changedAt` INTEGER NOT NULL)");
+        }
+    };
+
+    /**
+     * Every migration, in order. Version 1 predates the exported schemas and is the
+     * only version still allowed to be recreated from scratch; any other gap in this
+     * chain fails the open instead of silently wiping the user's reminders.
+     */
+    public static androidx.room.migration.Migration[] allMigrations() {
+        androidx.room.migration.Migration[] migrations = { MIGRATION_2_3, MIGRATION_3_4, MIGRATION_4_5,
+                MIGRATION_5_6, MIGRATION_6_7, MIGRATION_7_8, MIGRATION_8_9, MIGRATION_9_10, MIGRATION_10_11,
+                MIGRATION_11_12 };
+        for (int i = 0; i < migrations.length; i++) {
+            migrations[i] = timed(migrations[i]);
+        }
+        return migrations;
+    }
+
+    // Logs wall time and heap growth of each step, so upgrade cost on real installs shows up in logcat
+    private static androidx.room.migration.Migration timed(androidx.room.migration.Migration migration) {
+        return new androidx.room.migration.Migration(migration.startVersion, migration.endVersion) {
+            @Override
+            public void migrate(androidx.sqlite.db.SupportSQLiteDatabase database) {
+                Runtime runtime = Runtime.getRuntime();
+                long heapBefore = runtime.totalMemory() - runtime.freeMemory();
+                long start = android.os.SystemClock.elapsedRealtime();
+                migration.migrate(database);
+                long heapAfter = runtime.totalMemory() - runtime.freeMemory();
+                android.util.Log.i("AppDatabase", "Migration " + startVersion + "->" + endVersion + " took "
+                        + (android.os.SystemClock.elapsedRealtime() - start) + " ms, heap "
+                        + ((heapAfter - heapBefore) / 1024) + " KiB, native heap "
+                        + (android.os.Debug.getNativeHeapAllocatedSize() / 1024) + " KiB");
+            }
+        };
+    }
+
+    // Same statements Room generates for the external-content reminders_fts table
+    private static void createFtsTriggers(androidx.sqlite.db.SupportSQLiteDatabase database) {
+        database.execSQL("CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_reminders_fts_BEFORE_UPDATE "
+                + "BEFORE UPDATE ON `reminders` BEGIN DELETE FROM `reminders_fts` WHERE `docid`=OLD.`rowid`; END");
+        database.execSQL("CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_reminders_fts_BEFORE_DELETE "
+                + "BEFORE DELETE ON `reminders` BEGIN DELETE FROM `reminders_fts` WHERE `docid`=OLD.`rowid`; END");
+        database.execSQL("CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_reminders_fts_AFTER_UPDATE "
+                + "AFTER UPDATE ON `reminders` BEGIN INSERT INTO `reminders_fts`(`docid`, `title`, `description`) "
+                + "VALUES (NEW.`rowid`, NEW.`title`, NEW.`description`); END");
+        database.execSQL("CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_reminders_fts_AFTER_INSERT "
+                + "AFTER INSERT ON `reminders` BEGIN INSERT INTO `reminders_fts`(`docid`, `title`, `description`) "
+                + "VALUES (NEW.`rowid`, NEW.`title`, NEW.`description`); END");
+    }
 }
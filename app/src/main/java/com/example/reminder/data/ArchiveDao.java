@@ -0,0 +1,37 @@
+package com.example.reminder.data;
+
+import androidx.room.Dao;
+import androidx.room.Query;
+
+import java.util.List;
+
+@Dao
+public interface ArchiveDao {
+
+    // Served by index (deletedAt, isCompleted, timeMillis); no ORDER BY so the scan stops at the limit
+    @Query("SELECT id FROM reminders WHERE deletedAt = 0 AND isCompleted = 1 AND timeMillis < :cutoff "
+            + "LIMIT :limit")
+    List<Integer> getArchiveCandidateIds(long cutoff, int limit);
+
+    // Copy inside SQLite; the rows never round-trip through Java objects
+    @Query("INSERT OR REPLACE INTO archived_reminders (id, title, description, timeMillis, isAllDay, repeatMode, "
+            + "color, repeatInterval, repeatDayMask, windowStart, windowEnd, archivedAt) "
+            + "SELECT id, title, description, timeMillis, isAllDay, repeatMode, color, repeatInterval, "
+            + "repeatDayMask, windowStart, windowEnd, :archivedAt FROM reminders WHERE id IN (:ids)")
+    void copyToArchive(List<Integer> ids, long archivedAt);
+
+    @Query("DELETE FROM occurrences WHERE reminderId IN (:ids)")
+    void deleteOccurrences(List<Integer> ids);
+
+    @Query("DELETE FROM reminders WHERE id IN (:ids)")
+    void deleteReminders(List<Integer> ids);
+
+    // Keyset pages over (timeMillis, id), newest first
+    @Query("SELECT * FROM archived_reminders ORDER BY timeMillis DESC, id DESC LIMIT :limit")
+    List<ArchivedReminder> getFirstPage(int limit);
+
+    @Query("SELECT * FROM archived_reminders "
+            + "WHERE timeMillis <= :timeMillis AND (timeMillis < :timeMillis OR id < :id) "
+            + "ORDER BY timeMillis DESC, id DESC LIMIT :limit")
+    List<ArchivedReminder> getPageBefore(long timeMillis, int id, int limit);
+}
@@ -0,0 +1,84 @@
+package com.example.reminder.data;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.paging.ListenableFuturePagingSource;
+import androidx.paging.PagingState;
+import androidx.room.InvalidationTracker;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import kotlin.Unit;
+
+/**
+ * Forward-only keyset pager over the archive, newest first. The history screen
+ * only ever scrolls down from the top, so there is no backward key and a
+ * refresh simply starts over.
+ */
+public class ArchivePagingSource extends ListenableFuturePagingSource<ArchivePagingSource.Key, ArchivedReminder> {
+
+    public static final int PAGE_SIZE = 50;
+
+    /** Edge row of the previous page in the (timeMillis, id) descending order. */
+    public static final class Key {
+        final long timeMillis;
+        final int id;
+
+        Key(ArchivedReminder last) {
+            this.timeMillis = last.getTimeMillis();
+            this.id = last.getId();
+        }
+    }
+
+    private final ArchiveDao archiveDao;
+    private final Executor queryExecutor;
+    private final QueryMetrics queryMetrics;
+    private final InvalidationTracker invalidationTracker;
+    private final InvalidationTracker.Observer observer = new InvalidationTracker.Observer("archived_reminders") {
+        @Override
+        public void onInvalidated(@NonNull Set<String> tables) {
+            invalidate();
+        }
+    };
+
+    ArchivePagingSource(AppDatabase database, QueryMetrics queryMetrics) {
+        this.archiveDao = database.archiveDao();
+        this.queryExecutor = database.getQueryExecutor();
+        this.queryMetrics = queryMetrics;
+        this.invalidationTracker = database.getInvalidationTracker();
+
+        invalidationTracker.addObserver(observer);
+        registerInvalidatedCallback(() -> {
+            invalidationTracker.removeObserver(observer);
+            return Unit.INSTANCE;
+        });
+    }
+
+    @NonNull
+    @Override
+    public ListenableFuture<LoadResult<Key, ArchivedReminder>> loadFuture(@NonNull LoadParams<Key> params) {
+        return Futures.submit(() -> load(params.getKey(), params.getLoadSize()), queryExecutor);
+    }
+
+    private LoadResult<Key, ArchivedReminder> load(@Nullable Key key, int limit) {
+        try {
+            List<ArchivedReminder> page = key == null
+                    ? queryMetrics.time("ArchiveDao.getFirstPage", () -> archiveDao.getFirstPage(limit))
+                    : queryMetrics.time("ArchiveDao.getPageBefore",
+                            () -> archiveDao.getPageBefore(key.timeMillis, key.id, limit));
+            Key nextKey = page.size() >= limit ? new Key(page.get(page.size() - 1)) : null;
+            return new LoadResult.Page<>(page, null, nextKey);
+        } catch (Exception e) {
+            android.util.Log.e("ArchivePagingSource", "Error loading page", e);
+            return new LoadResult.Error<>(e);
+        }
+    }
+
+    @Nullable
+    @Override
+    public Key getRefreshKey(@NonNull PagingState<Key, ArchivedReminder> state) {
+        return null; // Archive only grows at the far end of a worker run; reload from the top
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.reminder.data;
+
+import android.content.Context;
+import androidx.annotation.NonNull;
+import androidx.work.Constraints;
+import androidx.work.ExistingPeriodicWorkPolicy;
+import androidx.work.PeriodicWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+import com.example.reminder.di.AppEntryPoint;
+import dagger.hilt.android.EntryPointAccessors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically moves completed reminders older than the configured age into
+ * {@code archived_reminders}, so the hot table only holds the working set,
+ * then returns the freed pages to the file system.
+ */
+public class ArchiveWorker extends Worker {
+
+    private static final String WORK_NAME = "archive_completed";
+
+    /** Days after its time a completed reminder is archived; 0 disables archiving. */
+    public static final String KEY_ARCHIVE_AFTER_DAYS = "archive_after_days";
+    public static final int DEFAULT_ARCHIVE_AFTER_DAYS = 30;
+
+    public ArchiveWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    public static void schedule(Context context) {
+        PeriodicWorkRequest request = new PeriodicWorkRequest.Builder(ArchiveWorker.class, 1, TimeUnit.DAYS)
+                .setConstraints(new Constraints.Builder()
+                        .setRequiresBatteryNotLow(true)
+                        .setRequiresDeviceIdle(true) // The vacuum rewrites pages; keep it off the user's time
+                        .build())
+                .build();
+        WorkManager.getInstance(context).enqueueUniquePeriodicWork(WORK_NAME, ExistingPeriodicWorkPolicy.KEEP,
+                request);
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        int days = androidx.preference.PreferenceManager.getDefaultSharedPreferences(getApplicationContext())
+                .getInt(KEY_ARCHIVE_AFTER_DAYS, DEFAULT_ARCHIVE_AFTER_DAYS);
+        if (days <= 0) {
+            return Result.success();
+        }
+
+        ReminderRepository repository = EntryPointAccessors
+                .fromApplication(getApplicationContext(), AppEntryPoint.class).reminderRepository();
+        try {
+            long cutoff = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(days);
+            int archived = repository.archiveCompleted(cutoff).get();
+            android.util.Log.d("ArchiveWorker", "Archived " + archived + " completed reminders");
+            return Result.success();
+        } catch (Exception e) {
+            android.util.Log.e("ArchiveWorker", "Error archiving completed reminders", e);
+            return Result.retry();
+        }
+    }
+}
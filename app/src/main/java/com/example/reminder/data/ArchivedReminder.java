@@ -0,0 +1,95 @@
+package com.example.reminder.data;
+
+import androidx.room.Entity;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+/**
+ * A completed reminder moved out of the hot {@code reminders} table by
+ * {@link ArchiveWorker}. Keeps its original id (reminders ids are AUTOINCREMENT,
+ * so they are never reused) and only the fields the history screen needs.
+ */
+@Entity(tableName = "archived_reminders", indices = {
+        @Index("timeMillis")
+})
+public class ArchivedReminder {
+
+    @PrimaryKey
+    private final int id;
+    private final String title;
+    private final String description;
+    private final long timeMillis;
+    private final boolean isAllDay;
+    private final String repeatMode;
+    private final int color;
+    private final long repeatInterval;
+    private final int repeatDayMask;
+    private final Integer windowStart;
+    private final Integer windowEnd;
+    private final long archivedAt;
+
+    public ArchivedReminder(int id, String title, String description, long timeMillis, boolean isAllDay,
+            String repeatMode, int color, long repeatInterval, int repeatDayMask, Integer windowStart,
+            Integer windowEnd, long archivedAt) {
+        this.id = id;
+        this.title = title;
+        this.description = description;
+        this.timeMillis = timeMillis;
+        this.isAllDay = isAllDay;
+        this.repeatMode = repeatMode;
+        this.color = color;
+        this.repeatInterval = repeatInterval;
+        this.repeatDayMask = repeatDayMask;
+        this.windowStart = windowStart;
+        this.windowEnd = windowEnd;
+        this.archivedAt = archivedAt;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public long getTimeMillis() {
+        return timeMillis;
+    }
+
+    public boolean isAllDay() {
+        return isAllDay;
+    }
+
+    public String getRepeatMode() {
+        return repeatMode;
+    }
+
+    public int getColor() {
+        return color;
+    }
+
+    public long getRepeatInterval() {
+        return repeatInterval;
+    }
+
+    public int getRepeatDayMask() {
+        return repeatDayMask;
+    }
+
+    public Integer getWindowStart() {
+        return windowStart;
+    }
+
+    public Integer getWindowEnd() {
+        return windowEnd;
+    }
+
+    public long getArchivedAt() {
+        return archivedAt;
+    }
+}
@@ -2,8 +2,7 @@ package com.example.reminder.data;
 
 import com.example.reminder.data.Reminder;
 import com.example.reminder.data.ReminderDao;
-import org.json.JSONArray;
-import org.json.JSONObject;
+import com.google.common.util.concurrent.ListenableFuture;
 import java.util.ArrayList;
 import java.util.List;
 import javax.inject.Inject;
@@ -11,175 +10,555 @@ import javax.inject.Inject;
 public class BackupRepository {
 
     private final ReminderDao reminderDao;
+    private final ChangeLogDao changeLogDao;
+    private final ReminderRepository reminderRepository;
 
     @Inject
-    public BackupRepository(ReminderDao reminderDao) {
+    public BackupRepository(ReminderDao reminderDao, AppDatabase database, ReminderRepository reminderRepository) {
         this.reminderDao = reminderDao;
+        this.changeLogDao = database.changeLogDao();
+        this.reminderRepository = reminderRepository;
     }
 
-    public String exportRemindersToJson() {
-        try {
-            List<Reminder> reminders = reminderDao.getAllRemindersSync(); // Need to ensure this exists or use
-                                                                          // getActiveRemindersSync
-            JSONArray jsonArray = new JSONArray();
-
-            for (Reminder r : reminders) {
-                JSONObject obj = new JSONObject();
-                obj.put("id", r.getId());
-                obj.put("title", r.getTitle());
-                obj.put("description", r.getDescription());
-                obj.put("timeMillis", r.getTimeMillis());
-                obj.put("isCompleted", r.isCompleted());
-                // Add any other fields if they exist in Entity
-                jsonArray.put(obj);
+    /**
+     * Streams every live reminder, with all of its stored fields, from a cursor
+     * into {@code out} as a JSON array. Only the current row is ever in memory.
+     * Returns the number of reminders written; the caller closes {@code out}.
+     */
+    public int exportRemindersToJson(java.io.OutputStream out) throws java.io.IOException {
+        try (android.database.Cursor cursor = reminderDao.getAllRemindersCursor()) {
+            return writeJson(cursor, out);
+        }
+    }
+
+    /** Writes every row of {@code cursor} (reminders columns) as a JSON array; returns the row count. */
+    static int writeJson(android.database.Cursor cursor, java.io.OutputStream out) throws java.io.IOException {
+        int written = 0;
+        android.util.JsonWriter writer = new android.util.JsonWriter(
+                new java.io.OutputStreamWriter(out, java.nio.charset.StandardCharsets.UTF_8));
+        int id = cursor.getColumnIndexOrThrow("id");
+        int title = cursor.getColumnIndexOrThrow("title");
+        int description = cursor.getColumnIndexOrThrow("description");
+        int timeMillis = cursor.getColumnIndexOrThrow("timeMillis");
+        int isAllDay = cursor.getColumnIndexOrThrow("isAllDay");
+        int repeatMode = cursor.getColumnIndexOrThrow("repeatMode");
+        int isCompleted = cursor.getColumnIndexOrThrow("isCompleted");
+        int color = cursor.getColumnIndexOrThrow("color");
+        int repeatInterval = cursor.getColumnIndexOrThrow("repeatInterval");
+        int hideFromWidget = cursor.getColumnIndexOrThrow("hideFromWidget");
+        int repeatDayMask = cursor.getColumnIndexOrThrow("repeatDayMask");
+        int windowStart = cursor.getColumnIndexOrThrow("windowStart");
+        int windowEnd = cursor.getColumnIndexOrThrow("windowEnd");
+
+        writer.beginArray();
+        while (cursor.moveToNext()) {
+            writer.beginObject();
+            writer.name("id").value(cursor.getInt(id));
+            writer.name("title").value(cursor.getString(title));
+            writer.name("description").value(cursor.getString(description));
+            writer.name("timeMillis").value(cursor.getLong(timeMillis));
+            writer.name("isAllDay").value(cursor.getInt(isAllDay) != 0);
+            writer.name("repeatMode").value(cursor.getString(repeatMode));
+            writer.name("isCompleted").value(cursor.getInt(isCompleted) != 0);
+            writer.name("color").value(cursor.getInt(color));
+            writer.name("repeatInterval").value(cursor.getLong(repeatInterval));
+            writer.name("hideFromWidget").value(cursor.getInt(hideFromWidget) != 0);
+            writer.name("repeatDayMask").value(cursor.getInt(repeatDayMask));
+            writeNullableInt(writer.name("windowStart"), cursor, windowStart);
+            writeNullableInt(writer.name("windowEnd"), cursor, windowEnd);
+            writer.endObject();
+            written++;
+        }
+        writer.endArray();
+        writer.flush(); // Not closed: that would close the caller's stream
+        return written;
+    }
+
+    /**
+     * Writes every live reminder, including writes still queued in the batcher, as
+     * JSON to a document the user picked. Blocks; call it off the main thread.
+     * Returns the number of reminders exported.
+     */
+    public int exportRemindersToUri(android.content.Context context, android.net.Uri uri) throws Exception {
+        reminderRepository.flush().get();
+        try (java.io.OutputStream out = context.getContentResolver().openOutputStream(uri)) {
+            if (out == null) {
+                throw new java.io.FileNotFoundException("Cannot open " + uri);
             }
-            return jsonArray.toString();
-        } catch (Exception e) {
-            android.util.Log.e("BackupRepository", "Error exporting JSON", e);
-            return null;
+            java.io.BufferedOutputStream buffered = new java.io.BufferedOutputStream(out);
+            int written = exportRemindersToJson(buffered);
+            buffered.flush();
+            return written;
         }
     }
 
-    public void importRemindersFromJson(String jsonString) {
-        try {
-            JSONArray jsonArray = new JSONArray(jsonString);
-            List<Reminder> reminders = new ArrayList<>();
-
-            for (int i = 0; i < jsonArray.length(); i++) {
-                JSONObject obj = jsonArray.getJSONObject(i);
-                Reminder r = new Reminder();
-                // We might want to clear ID to let AutoGenerate handle it,
-                // OR duplicate check. For simple restore, we can try to insert
-                // If conflict strategy is REPLACE, it will overwrite same IDs.
-
-                // r.setId(obj.optInt("id")); // Optional: Keep ID or generate new?
-                r.setTitle(obj.optString("title"));
-                r.setDescription(obj.optString("description"));
-                r.setTimeMillis(obj.optLong("timeMillis"));
-                r.setCompleted(obj.optBoolean("isCompleted"));
-
-                reminders.add(r);
+    private static void writeNullableInt(android.util.JsonWriter writer, android.database.Cursor cursor, int column)
+            throws java.io.IOException {
+        if (cursor.isNull(column)) {
+            writer.nullValue();
+        } else {
+            writer.value(cursor.getInt(column));
+        }
+    }
+
+    private static final String BINARY_SUFFIX = ".bin";
+    private static final String JSON_SUFFIX = ".json";
+    private static final String DRIVE_NAME = "reminder_backup";
+
+    // Rows per write transaction during import; one batch is all the importer holds in memory
+    static final int IMPORT_BATCH_SIZE = 500;
+
+    /**
+     * Streams a JSON array of reminders from {@code in} and inserts them in
+     * transactions of {@link #IMPORT_BATCH_SIZE} rows through the repository, so
+     * occurrences and caches stay in step. Each batch is committed before the next
+     * is parsed, which keeps memory flat for any backup size. Reminders get fresh
+     * ids; batches committed before a parse error are kept. Returns the number of
+     * reminders imported.
+     */
+    public int importRemindersFromJson(java.io.InputStream in, BackupCallback progress) throws Exception {
+        int imported = 0;
+        List<Reminder> batch = new ArrayList<>(IMPORT_BATCH_SIZE);
+        try (android.util.JsonReader reader = new android.util.JsonReader(
+                new java.io.InputStreamReader(in, java.nio.charset.StandardCharsets.UTF_8))) {
+            reader.beginArray();
+            while (reader.hasNext()) {
+                batch.add(readReminder(reader));
+                if (batch.size() == IMPORT_BATCH_SIZE) {
+                    imported += commitBatch(batch);
+                    progress.onProgress(imported);
+                }
             }
+            reader.endArray();
+        }
+        if (!batch.isEmpty()) {
+            imported += commitBatch(batch);
+            progress.onProgress(imported);
+        }
+        return imported;
+    }
 
-            // Batch insert
-            for (Reminder r : reminders) {
-                reminderDao.insertReminder(r);
+    /** Imports a {@link BinaryBackupFormat} stream with the same batching as the JSON import. */
+    public int importRemindersFromBinary(java.io.InputStream in, BackupCallback progress) throws Exception {
+        List<Reminder> batch = new ArrayList<>(IMPORT_BATCH_SIZE);
+        int[] imported = { 0 };
+        BinaryBackupFormat.read(in, reminder -> {
+            reminder.setId(0); // Fresh ids, like the JSON import
+            batch.add(reminder);
+            if (batch.size() == IMPORT_BATCH_SIZE) {
+                imported[0] += commitBatch(batch);
+                progress.onProgress(imported[0]);
             }
+        });
+        if (!batch.isEmpty()) {
+            imported[0] += commitBatch(batch);
+            progress.onProgress(imported[0]);
+        }
+        return imported[0];
+    }
 
-        } catch (Exception e) {
-            android.util.Log.e("BackupRepository", "Error importing JSON", e);
+    /** Imports either format, told apart by the gzip magic the binary format starts with. */
+    public int importBackup(java.io.InputStream in, BackupCallback progress) throws Exception {
+        java.io.InputStream buffered = new java.io.BufferedInputStream(in);
+        return BinaryBackupFormat.isBinary(buffered)
+                ? importRemindersFromBinary(buffered, progress)
+                : importRemindersFromJson(buffered, progress);
+    }
+
+    private int commitBatch(List<Reminder> batch) throws Exception {
+        int size = batch.size();
+        ListenableFuture<List<Reminder>> committed = reminderRepository.insertAll(new ArrayList<>(batch));
+        reminderRepository.flush(); // Commit now rather than after the coalescing window
+        committed.get(); // Back-pressure: parse no further than the writer has committed
+        batch.clear();
+        return size;
+    }
+
+    // Reads one exported object; unknown keys are skipped so older and newer backups both load
+    static Reminder readReminder(android.util.JsonReader reader) throws java.io.IOException {
+        Reminder r = new Reminder();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (reader.peek() == android.util.JsonToken.NULL) {
+                reader.nextNull();
+                continue;
+            }
+            switch (name) {
+                case "title":
+                    r.setTitle(reader.nextString());
+                    break;
+                case "description":
+                    r.setDescription(reader.nextString());
+                    break;
+                case "timeMillis":
+                    r.setTimeMillis(reader.nextLong());
+                    break;
+                case "isAllDay":
+                    r.setAllDay(reader.nextBoolean());
+                    break;
+                case "repeatMode":
+                    r.setRepeatMode(reader.nextString());
+                    break;
+                case "isCompleted":
+                    r.setCompleted(reader.nextBoolean());
+                    break;
+                case "color":
+                    r.setColor(reader.nextInt());
+                    break;
+                case "repeatInterval":
+                    r.setRepeatInterval(reader.nextLong());
+                    break;
+                case "hideFromWidget":
+                    r.setHideFromWidget(reader.nextBoolean());
+                    break;
+                case "repeatDayMask":
+                    r.setRepeatDayMask(reader.nextInt());
+                    break;
+                case "windowStart":
+                    r.setWindowStart(reader.nextInt());
+                    break;
+                case "windowEnd":
+                    r.setWindowEnd(reader.nextInt());
+                    break;
+                default:
+                    reader.skipValue(); // Including "id": restored rows get fresh ids
+                    break;
+            }
         }
+        reader.endObject();
+        return r;
     }
 
     public interface BackupCallback {
         void onSuccess();
 
         void onError(Exception e);
+
+        /** Reminders restored so far; called on the background thread after each committed batch. */
+        default void onProgress(int imported) {
+        }
     }
 
-    public void uploadToDrive(android.content.Context context,
-            com.google.android.gms.auth.api.signin.GoogleSignInAccount account, String jsonContent,
-            BackupCallback callback) {
+    // Drive segment names: reminder_base_<toSeq>.bin and reminder_delta_<fromSeq>_<toSeq>.bin
+    private static final String BASE_PREFIX = "reminder_base_";
+    private static final String DELTA_PREFIX = "reminder_delta_";
+    // Fold deltas into a fresh base once there are this many, or they outgrow half the base
+    static final int MAX_DELTAS = 8;
+
+    private static final String STATE_PREFS = "backup_state";
+    static final String KEY_ACKED_SEQ = "acked_seq"; // Last change_log seq known to be on Drive
+    private static final String KEY_DELTA_COUNT = "delta_count";
+    private static final String KEY_DELTA_BYTES = "delta_bytes";
+    private static final String KEY_BASE_BYTES = "base_bytes";
+    // Past this many unsent entries (backups stopped), the log is dropped and the next backup is a base
+    static final int MAX_CHANGE_LOG_ENTRIES = 10_000;
+    // Guards backup_state against trimming while a backup reads it; instances are not singletons
+    private static final Object STATE_LOCK = new Object();
+
+    /**
+     * Incremental Drive backup. Uploads only the reminders changed since the last
+     * acknowledged change_log seq as a delta segment, or a fresh base snapshot when
+     * there is none yet or the deltas have grown past {@link #MAX_DELTAS} (compaction:
+     * the new base replaces the old one and every delta). Does nothing when nothing
+     * changed.
+     */
+    public void backupToDrive(android.content.Context context,
+            com.google.android.gms.auth.api.signin.GoogleSignInAccount account, BackupCallback callback) {
         new Thread(() -> {
+            java.io.File segment = null;
             try {
-                com.google.api.client.googleapis.extensions.android.gms.auth.GoogleAccountCredential credential = com.google.api.client.googleapis.extensions.android.gms.auth.GoogleAccountCredential
-                        .usingOAuth2(
-                                context, java.util.Collections
-                                        .singleton(com.google.api.services.drive.DriveScopes.DRIVE_APPDATA));
-                credential.setSelectedAccount(account.getAccount());
-
-                com.google.api.services.drive.Drive googleDriveService = new com.google.api.services.drive.Drive.Builder(
-                        com.google.api.client.extensions.android.http.AndroidHttp.newCompatibleTransport(),
-                        new com.google.api.client.json.gson.GsonFactory(),
-                        credential)
-                        .setApplicationName("Reminder App")
-                        .build();
-
-                // Check for existing file to update or create new
-                com.google.api.services.drive.model.FileList result = googleDriveService.files().list()
-                        .setSpaces("appDataFolder")
-                        .setQ("name = 'reminder_backup.json' and trashed = false")
-                        .setFields("files(id, name)")
-                        .execute();
-
-                List<com.google.api.services.drive.model.File> files = result.getFiles();
-
-                // Content
-                com.google.api.client.http.ByteArrayContent content = new com.google.api.client.http.ByteArrayContent(
-                        "application/json", jsonContent.getBytes());
-
-                if (files != null && !files.isEmpty()) {
-                    // Update existing
-                    String fileId = files.get(0).getId();
-                    com.google.api.services.drive.model.File fileMetadata = new com.google.api.services.drive.model.File();
-                    fileMetadata.setName("reminder_backup.json"); // Redundant but safe
-
-                    googleDriveService.files().update(fileId, fileMetadata, content).execute();
-                } else {
-                    // Create new
-                    com.google.api.services.drive.model.File fileMetadata = new com.google.api.services.drive.model.File();
-                    fileMetadata.setName("reminder_backup.json");
-                    fileMetadata.setParents(java.util.Collections.singletonList("appDataFolder"));
-
-                    googleDriveService.files().create(fileMetadata, content)
-                            .setFields("id")
-                            .execute();
+                reminderRepository.flush().get(); // Writes still queued belong in this backup
+                long head;
+                synchronized (STATE_LOCK) { // The log must not be cut while a delta is read from it
+                    android.content.SharedPreferences state = context.getSharedPreferences(STATE_PREFS,
+                            android.content.Context.MODE_PRIVATE);
+                    long acked = state.getLong(KEY_ACKED_SEQ, -1);
+                    head = reminderRepository.getLastChangeSeq();
+
+                    com.google.api.services.drive.Drive drive = driveService(context, account);
+                    List<com.google.api.services.drive.model.File> files = listSegments(drive);
+                    boolean hasBase = false;
+                    for (com.google.api.services.drive.model.File file : files) {
+                        hasBase |= file.getName().startsWith(BASE_PREFIX);
+                    }
+
+                    int deltaCount = state.getInt(KEY_DELTA_COUNT, 0);
+                    boolean compact = acked < 0 || !hasBase || deltaCount >= MAX_DELTAS
+                            || state.getLong(KEY_DELTA_BYTES, 0) > state.getLong(KEY_BASE_BYTES, 0) / 2;
+                    if (!compact && head == acked) {
+                        callback.onSuccess(); // Nothing changed since the last upload
+                        return;
+                    }
+
+                    segment = java.io.File.createTempFile("reminder_segment", BINARY_SUFFIX, context.getCacheDir());
+                    android.content.SharedPreferences.Editor editor = state.edit().putLong(KEY_ACKED_SEQ, head);
+                    if (compact) {
+                        writeSegment(segment, BinaryBackupFormat.KIND_BASE, 0, head);
+                        createFile(drive, BASE_PREFIX + head + BINARY_SUFFIX, segment);
+                        // Only after the new base is up: older bases and deltas are now redundant
+                        for (com.google.api.services.drive.model.File file : files) {
+                            drive.files().delete(file.getId()).execute();
+                        }
+                        editor.putInt(KEY_DELTA_COUNT, 0).putLong(KEY_DELTA_BYTES, 0)
+                                .putLong(KEY_BASE_BYTES, segment.length());
+                    } else {
+                        writeSegment(segment, BinaryBackupFormat.KIND_DELTA, acked, head);
+                        createFile(drive, DELTA_PREFIX + acked + "_" + head + BINARY_SUFFIX, segment);
+                        editor.putInt(KEY_DELTA_COUNT, deltaCount + 1)
+                                .putLong(KEY_DELTA_BYTES, state.getLong(KEY_DELTA_BYTES, 0) + segment.length());
+                    }
+                    editor.apply();
+                    android.util.Log.d("BackupRepository", (compact ? "Base" : "Delta") + " segment through seq " + head
+                            + ", " + segment.length() + " bytes");
                 }
 
-                // Notify internal success (UI thread handling needed in caller or here with
-                // Handler, calling back on background thread is safer for repo)
+                // Everything through head is on Drive now
+                reminderRepository.trimChangeLog(head, 0).get();
                 callback.onSuccess();
             } catch (Exception e) {
                 callback.onError(e);
+            } finally {
+                if (segment != null) {
+                    segment.delete();
+                }
             }
         }).start();
     }
 
+    /**
+     * Housekeeping for the periodic worker: drops change_log entries already on Drive.
+     * Before the first upload the next backup is a full base anyway, so only a day of
+     * history is kept. If backups stopped and more than {@link #MAX_CHANGE_LOG_ENTRIES}
+     * entries piled up, the whole log is dropped and the next backup forced to a base.
+     */
+    public ListenableFuture<Integer> trimChangeLog(android.content.Context context) {
+        synchronized (STATE_LOCK) {
+            android.content.SharedPreferences state = context.getSharedPreferences(STATE_PREFS,
+                    android.content.Context.MODE_PRIVATE);
+            long acked = state.getLong(KEY_ACKED_SEQ, -1);
+            if (acked >= 0 && changeLogDao.countAfter(acked) > MAX_CHANGE_LOG_ENTRIES) {
+                long head = reminderRepository.getLastChangeSeq();
+                state.edit().putLong(KEY_ACKED_SEQ, -1).commit(); // Before the trim: no delta may start from acked
+                android.util.Log.d("BackupRepository", "Change log over " + MAX_CHANGE_LOG_ENTRIES
+                        + " entries; dropping it, next backup is a base");
+                // Only through head: a base taken meanwhile covers those, later entries feed its deltas
+                return reminderRepository.trimChangeLog(head, 0);
+            }
+            long olderThan = acked < 0
+                    ? System.currentTimeMillis() - java.util.concurrent.TimeUnit.DAYS.toMillis(1) : 0;
+            return reminderRepository.trimChangeLog(acked, olderThan);
+        }
+    }
+
+    private void writeSegment(java.io.File file, int kind, long fromSeq, long toSeq) throws java.io.IOException {
+        try (java.io.OutputStream out = new java.io.BufferedOutputStream(new java.io.FileOutputStream(file));
+                android.database.Cursor cursor = kind == BinaryBackupFormat.KIND_BASE
+                        ? reminderDao.getAllRemindersCursor()
+                        : changeLogDao.getChangedRemindersCursor(fromSeq)) {
+            List<Integer> removed = kind == BinaryBackupFormat.KIND_BASE
+                    ? java.util.Collections.emptyList()
+                    : changeLogDao.getRemovedIds(fromSeq);
+            BinaryBackupFormat.writeSegment(out, kind, fromSeq, toSeq, cursor, removed);
+        }
+    }
+
+    /**
+     * Restores the newest base segment and then every contiguous delta after it.
+     * Into an empty database the backup's own ids are kept; otherwise the backup is
+     * merged in under fresh ids, remapped across segments so deltas still land on
+     * the rows they describe, and no local reminder is overwritten. Falls back to
+     * the single-file backups (binary, then JSON) written before segments existed;
+     * those are imported with fresh ids.
+     */
     public void restoreFromDrive(android.content.Context context,
             com.google.android.gms.auth.api.signin.GoogleSignInAccount account,
             BackupCallback callback) {
         new Thread(() -> {
             try {
-                com.google.api.client.googleapis.extensions.android.gms.auth.GoogleAccountCredential credential = com.google.api.client.googleapis.extensions.android.gms.auth.GoogleAccountCredential
-                        .usingOAuth2(
-                                context, java.util.Collections
-                                        .singleton(com.google.api.services.drive.DriveScopes.DRIVE_APPDATA));
-                credential.setSelectedAccount(account.getAccount());
-
-                com.google.api.services.drive.Drive googleDriveService = new com.google.api.services.drive.Drive.Builder(
-                        com.google.api.client.extensions.android.http.AndroidHttp.newCompatibleTransport(),
-                        new com.google.api.client.json.gson.GsonFactory(),
-                        credential)
-                        .setApplicationName("Reminder App")
-                        .build();
-
-                // Find file
-                com.google.api.services.drive.model.FileList result = googleDriveService.files().list()
-                        .setSpaces("appDataFolder")
-                        .setQ("name = 'reminder_backup.json' and trashed = false")
-                        .setFields("files(id, name)")
-                        .execute();
-
-                List<com.google.api.services.drive.model.File> files = result.getFiles();
-
-                if (files == null || files.isEmpty()) {
-                    throw new Exception("No backup found in Drive.");
+                com.google.api.services.drive.Drive drive = driveService(context, account);
+                List<com.google.api.services.drive.model.File> segments = listSegments(drive);
+
+                com.google.api.services.drive.model.File base = null;
+                long baseSeq = -1;
+                java.util.TreeMap<Long, com.google.api.services.drive.model.File> deltasByFrom =
+                        new java.util.TreeMap<>();
+                java.util.Map<Long, Long> deltaTo = new java.util.HashMap<>();
+                for (com.google.api.services.drive.model.File file : segments) {
+                    long[] seqs = parseSeqs(file.getName());
+                    if (file.getName().startsWith(BASE_PREFIX) && seqs[0] > baseSeq) {
+                        base = file;
+                        baseSeq = seqs[0];
+                    } else if (file.getName().startsWith(DELTA_PREFIX)) {
+                        deltasByFrom.put(seqs[0], file);
+                        deltaTo.put(seqs[0], seqs[1]);
+                    }
                 }
 
-                String fileId = files.get(0).getId();
-
-                // Download
-                java.io.ByteArrayOutputStream outputStream = new java.io.ByteArrayOutputStream();
-                googleDriveService.files().get(fileId).executeMediaAndDownloadTo(outputStream);
-                String jsonString = new String(outputStream.toByteArray());
-
-                // Import
-                importRemindersFromJson(jsonString);
+                if (base == null) {
+                    restoreLegacy(drive, callback);
+                    callback.onSuccess();
+                    return;
+                }
 
+                // Backup id -> local id; null while the backup's ids are used as they are
+                android.util.SparseIntArray idMap = reminderRepository.isEmptySync()
+                        ? null
+                        : new android.util.SparseIntArray();
+                int restored = applySegment(drive, base, idMap, 0, callback);
+                long seq = baseSeq;
+                com.google.api.services.drive.model.File delta;
+                while ((delta = deltasByFrom.get(seq)) != null) {
+                    restored += applySegment(drive, delta, idMap, restored, callback);
+                    seq = deltaTo.get(seq);
+                }
+                if (deltasByFrom.ceilingKey(seq) != null) {
+                    android.util.Log.w("BackupRepository", "Deltas after seq " + seq + " are not contiguous; skipped");
+                }
                 callback.onSuccess();
             } catch (Exception e) {
                 callback.onError(e);
             }
         }).start();
     }
+
+    // Streams one segment into the database in committed batches, upserts first, then removals
+    private int applySegment(com.google.api.services.drive.Drive drive, com.google.api.services.drive.model.File file,
+            android.util.SparseIntArray idMap, int restoredSoFar, BackupCallback progress) throws Exception {
+        List<Integer> removed = new ArrayList<>();
+        int[] applied = { 0 };
+        List<ListenableFuture<Reminder>> pending = new ArrayList<>(1);
+        try (java.io.InputStream in = drive.files().get(file.getId()).executeMediaAsInputStream()) {
+            BinaryBackupFormat.read(in, new BinaryBackupFormat.RowSink() {
+                @Override
+                public void accept(Reminder reminder) throws Exception {
+                    pending.clear();
+                    pending.add(enqueueRestored(reminder, idMap));
+                    if (++applied[0] % IMPORT_BATCH_SIZE == 0) {
+                        awaitRestored(pending.get(0));
+                        progress.onProgress(restoredSoFar + applied[0]);
+                    }
+                }
+
+                @Override
+                public void delete(int id) {
+                    int localId = idMap == null ? id : idMap.get(id, 0);
+                    if (localId != 0) { // Unmapped: the row never made it into this database
+                        removed.add(localId);
+                    }
+                }
+            });
+        }
+        if (!pending.isEmpty()) {
+            awaitRestored(pending.get(0));
+        }
+        if (!removed.isEmpty()) {
+            reminderRepository.applyRemoteDeletes(removed).get();
+            applied[0] += removed.size();
+        }
+        progress.onProgress(restoredSoFar + applied[0]);
+        return applied[0];
+    }
+
+    // Upserts under the backup id, or under the local id it was mapped to (a fresh one the first time)
+    private ListenableFuture<Reminder> enqueueRestored(Reminder reminder, android.util.SparseIntArray idMap) {
+        if (idMap == null) {
+            return reminderRepository.insert(reminder);
+        }
+        int backupId = reminder.getId();
+        reminder.setId(idMap.get(backupId, 0));
+        if (reminder.getId() != 0) {
+            return reminderRepository.insert(reminder);
+        }
+        return reminderRepository.insert(reminder, id -> idMap.put(backupId, (int) id));
+    }
+
+    private void awaitRestored(ListenableFuture<Reminder> lastEnqueued) throws Exception {
+        reminderRepository.flush(); // Commit now rather than after the coalescing window
+        lastEnqueued.get();
+        // Insert listeners run on the writer right after the commit; this barrier waits for them too
+        reminderRepository.flush().get();
+    }
+
+    // Single-file backups from before segments: newest of reminder_backup.bin / .json
+    private void restoreLegacy(com.google.api.services.drive.Drive drive, BackupCallback callback) throws Exception {
+        com.google.api.services.drive.model.FileList result = drive.files().list()
+                .setSpaces("appDataFolder")
+                .setQ("(name = '" + DRIVE_NAME + BINARY_SUFFIX + "' or name = '" + DRIVE_NAME + JSON_SUFFIX
+                        + "') and trashed = false")
+                .setOrderBy("modifiedTime desc")
+                .setFields("files(id, name)")
+                .execute();
+
+        List<com.google.api.services.drive.model.File> files = result.getFiles();
+        if (files == null || files.isEmpty()) {
+            throw new Exception("No backup found in Drive.");
+        }
+
+        // Download and import as a stream, never holding the whole backup in memory
+        try (java.io.InputStream in = drive.files().get(files.get(0).getId()).executeMediaAsInputStream()) {
+            importBackup(in, callback);
+        }
+    }
+
+    // "reminder_base_12.bin" -> {12}; "reminder_delta_12_40.bin" -> {12, 40}
+    private static long[] parseSeqs(String name) {
+        String[] parts = name.substring(0, name.length() - BINARY_SUFFIX.length()).split("_");
+        long[] seqs = new long[2];
+        try {
+            seqs[0] = Long.parseLong(parts[2]);
+            seqs[1] = parts.length > 3 ? Long.parseLong(parts[3]) : seqs[0];
+        } catch (RuntimeException e) {
+            seqs[0] = -1; // Not one of ours; never matches a chain
+            seqs[1] = -1;
+        }
+        return seqs;
+    }
+
+    private static List<com.google.api.services.drive.model.File> listSegments(
+            com.google.api.services.drive.Drive drive) throws java.io.IOException {
+        List<com.google.api.services.drive.model.File> segments = new ArrayList<>();
+        String pageToken = null;
+        do {
+            com.google.api.services.drive.model.FileList result = drive.files().list()
+                    .setSpaces("appDataFolder")
+                    .setQ("(name contains '" + BASE_PREFIX + "' or name contains '" + DELTA_PREFIX
+                            + "') and trashed = false")
+                    .setFields("nextPageToken, files(id, name)")
+                    .setPageToken(pageToken)
+                    .execute();
+            if (result.getFiles() != null) {
+                segments.addAll(result.getFiles());
+            }
+            pageToken = result.getNextPageToken();
+        } while (pageToken != null);
+        return segments;
+    }
+
+    private static void createFile(com.google.api.services.drive.Drive drive, String name, java.io.File content)
+            throws java.io.IOException {
+        com.google.api.services.drive.model.File fileMetadata = new com.google.api.services.drive.model.File();
+        fileMetadata.setName(name);
+        fileMetadata.setParents(java.util.Collections.singletonList("appDataFolder"));
+        drive.files().create(fileMetadata,
+                new com.google.api.client.http.FileContent("application/octet-stream", content))
+                .setFields("id")
+                .execute();
+    }
+
+    private static com.google.api.services.drive.Drive driveService(android.content.Context context,
+            com.google.android.gms.auth.api.signin.GoogleSignInAccount account) {
+        com.google.api.client.googleapis.extensions.android.gms.auth.GoogleAccountCredential credential = com.google.api.client.googleapis.extensions.android.gms.auth.GoogleAccountCredential
+                .usingOAuth2(
+                        context, java.util.Collections
+                                .singleton(com.google.api.services.drive.DriveScopes.DRIVE_APPDATA));
+        credential.setSelectedAccount(account.getAccount());
+
+        return new com.google.api.services.drive.Drive.Builder(
+                com.google.api.client.extensions.android.http.AndroidHttp.newCompatibleTransport(),
+                new com.google.api.client.json.gson.GsonFactory(),
+                credential)
+                .setApplicationName("Reminder App")
+                .build();
+    }
 }
@@ -0,0 +1,320 @@
+package com.example.reminder.data;
+
+import android.database.Cursor;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compact backup encoding, gzip-wrapped:
+ *
+ * <pre>
+ * header  "RMDB" magic, varint format version,
+ *         (v2) byte kind (0 = base, 1 = delta), varint fromSeq, varint toSeq
+ * row*    0x01, varint flags, zigzag varint id delta, zigzag varint timeMillis delta,
+ *         string title, string description, string repeatMode, int32 color,
+ *         [varint repeatInterval] [varint windowStart] [varint windowEnd]
+ * delete* 0x02, varint id (v2 deltas only)
+ * end     0x00, varint row count, (v2) varint delete count
+ * </pre>
+ *
+ * A base segment is a full snapshot covering change_log up to toSeq; a delta
+ * carries the rows upserted and the ids removed in (fromSeq, toSeq]. Version 1
+ * files are plain snapshots and still decode.
+ *
+ * Rows come in timeMillis order, so time deltas stay small. Flags pack the
+ * booleans, the presence of the optional fields and the 7-bit day mask.
+ * Strings go through a string table built while streaming: a string is written
+ * in full the first time and referenced by index afterwards, which collapses
+ * repeated titles and repeat modes without a second pass. Encoding and
+ * decoding hold one row plus the bounded table in memory.
+ */
+final class BinaryBackupFormat {
+
+    static final int VERSION = 2;
+    static final int KIND_BASE = 0;
+    static final int KIND_DELTA = 1;
+    private static final byte[] MAGIC = { 'R', 'M', 'D', 'B' };
+
+    private static final int ROW = 1;
+    private static final int DELETE = 2;
+    private static final int END = 0;
+
+    private static final int FLAG_ALL_DAY = 1;
+    private static final int FLAG_COMPLETED = 1 << 1;
+    private static final int FLAG_HIDE_FROM_WIDGET = 1 << 2;
+    private static final int FLAG_REPEAT_INTERVAL = 1 << 3;
+    private static final int FLAG_WINDOW_START = 1 << 4;
+    private static final int FLAG_WINDOW_END = 1 << 5;
+    private static final int DAY_MASK_SHIFT = 6;
+
+    // String refs: 0 = null, 1 = literal, n + 2 = table entry n
+    private static final int STRING_NULL = 0;
+    private static final int STRING_LITERAL = 1;
+    private static final int MAX_TABLE_SIZE = 4096;
+    private static final int MAX_TABLED_LENGTH = 64; // Long text (descriptions) rarely repeats
+
+    /** Receives decoded records; may block, e.g. to commit a batch. Ids are set from version 2 on. */
+    interface RowSink {
+        void accept(Reminder reminder) throws Exception;
+
+        default void delete(int id) throws Exception {
+        }
+    }
+
+    private BinaryBackupFormat() {
+    }
+
+    /** True if the stream starts with the gzip magic. Needs mark support; the stream is reset. */
+    static boolean isBinary(InputStream in) throws IOException {
+        in.mark(2);
+        int b0 = in.read();
+        int b1 = in.read();
+        in.reset();
+        return b0 == 0x1f && b1 == 0x8b;
+    }
+
+    /** Writes every row of {@code cursor} (reminders columns) as a standalone snapshot; returns the row count. */
+    static int write(Cursor cursor, OutputStream out) throws IOException {
+        return writeSegment(out, KIND_BASE, 0, 0, cursor, java.util.Collections.emptyList());
+    }
+
+    /**
+     * Writes one segment: every row of {@code cursor} as an upsert, then
+     * {@code deletedIds}. Returns the number of records written.
+     */
+    static int writeSegment(OutputStream out, int kind, long fromSeq, long toSeq, Cursor cursor,
+            List<Integer> deletedIds) throws IOException {
+        GZIPOutputStream gzip = new GZIPOutputStream(out, 8192);
+        DataOutputStream data = new DataOutputStream(new java.io.BufferedOutputStream(gzip, 8192));
+        data.write(MAGIC);
+        writeVarint(data, VERSION);
+        data.writeByte(kind);
+        writeVarint(data, fromSeq);
+        writeVarint(data, toSeq);
+
+        int id = cursor.getColumnIndexOrThrow("id");
+        int title = cursor.getColumnIndexOrThrow("title");
+        int description = cursor.getColumnIndexOrThrow("description");
+        int timeMillis = cursor.getColumnIndexOrThrow("timeMillis");
+        int isAllDay = cursor.getColumnIndexOrThrow("isAllDay");
+        int repeatMode = cursor.getColumnIndexOrThrow("repeatMode");
+        int isCompleted = cursor.getColumnIndexOrThrow("isCompleted");
+        int color = cursor.getColumnIndexOrThrow("color");
+        int repeatInterval = cursor.getColumnIndexOrThrow("repeatInterval");
+        int hideFromWidget = cursor.getColumnIndexOrThrow("hideFromWidget");
+        int repeatDayMask = cursor.getColumnIndexOrThrow("repeatDayMask");
+        int windowStart = cursor.getColumnIndexOrThrow("windowStart");
+        int windowEnd = cursor.getColumnIndexOrThrow("windowEnd");
+
+        Map<String, Integer> table = new HashMap<>();
+        long prevId = 0;
+        long prevTime = 0;
+        int rows = 0;
+        while (cursor.moveToNext()) {
+            long interval = cursor.getLong(repeatInterval);
+            int flags = (cursor.getInt(repeatDayMask) & DayMask.ALL_BITS) << DAY_MASK_SHIFT;
+            if (cursor.getInt(isAllDay) != 0)
+                flags |= FLAG_ALL_DAY;
+            if (cursor.getInt(isCompleted) != 0)
+                flags |= FLAG_COMPLETED;
+            if (cursor.getInt(hideFromWidget) != 0)
+                flags |= FLAG_HIDE_FROM_WIDGET;
+            if (interval != 0)
+                flags |= FLAG_REPEAT_INTERVAL;
+            if (!cursor.isNull(windowStart))
+                flags |= FLAG_WINDOW_START;
+            if (!cursor.isNull(windowEnd))
+                flags |= FLAG_WINDOW_END;
+
+            long rowId = cursor.getLong(id);
+            long time = cursor.getLong(timeMillis);
+            data.writeByte(ROW);
+            writeVarint(data, flags);
+            writeVarint(data, zigzag(rowId - prevId));
+            writeVarint(data, zigzag(time - prevTime));
+            writeString(data, table, cursor.getString(title));
+            writeString(data, table, cursor.getString(description));
+            writeString(data, table, cursor.getString(repeatMode));
+            data.writeInt(cursor.getInt(color));
+            if ((flags & FLAG_REPEAT_INTERVAL) != 0)
+                writeVarint(data, interval);
+            if ((flags & FLAG_WINDOW_START) != 0)
+                writeVarint(data, cursor.getInt(windowStart));
+            if ((flags & FLAG_WINDOW_END) != 0)
+                writeVarint(data, cursor.getInt(windowEnd));
+
+            prevId = rowId;
+            prevTime = time;
+            rows++;
+        }
+        for (int deletedId : deletedIds) {
+            data.writeByte(DELETE);
+            writeVarint(data, deletedId);
+        }
+        data.writeByte(END);
+        writeVarint(data, rows);
+        writeVarint(data, deletedIds.size());
+        data.flush();
+        gzip.finish(); // Not closed: the caller owns the stream
+        return rows + deletedIds.size();
+    }
+
+    /** Decodes records into {@code sink} and returns the number decoded. */
+    static int read(InputStream in, RowSink sink) throws Exception {
+        DataInputStream data = new DataInputStream(
+                new java.io.BufferedInputStream(new GZIPInputStream(in, 8192), 8192));
+        byte[] magic = new byte[MAGIC.length];
+        data.readFully(magic);
+        if (!java.util.Arrays.equals(magic, MAGIC)) {
+            throw new IOException("Not a reminder backup");
+        }
+        long version = readVarint(data);
+        if (version < 1 || version > VERSION) {
+            throw new IOException("Unsupported backup version " + version);
+        }
+        if (version >= 2) {
+            data.readUnsignedByte(); // kind
+            readVarint(data); // fromSeq
+            readVarint(data); // toSeq
+        }
+
+        List<String> table = new ArrayList<>();
+        long prevId = 0;
+        long prevTime = 0;
+        int rows = 0;
+        int deletes = 0;
+        while (true) {
+            int tag = data.readUnsignedByte();
+            if (tag == END) {
+                long expectedRows = readVarint(data);
+                long expectedDeletes = version >= 2 ? readVarint(data) : 0;
+                if (expectedRows != rows || expectedDeletes != deletes) {
+                    throw new IOException("Backup truncated: " + rows + " of " + expectedRows + " rows");
+                }
+                return rows + deletes;
+            } else if (tag == DELETE && version >= 2) {
+                sink.delete((int) readVarint(data));
+                deletes++;
+                continue;
+            } else if (tag != ROW) {
+                throw new IOException("Corrupt backup at row " + rows);
+            }
+
+            int flags = (int) readVarint(data);
+            long id = prevId + unzigzag(readVarint(data));
+            long time = prevTime + unzigzag(readVarint(data));
+
+            Reminder r = new Reminder();
+            if (version >= 2) {
+                r.setId((int) id); // Version 1 ids were never meant to be applied
+            }
+            r.setTimeMillis(time);
+            r.setTitle(readString(data, table));
+            r.setDescription(readString(data, table));
+            r.setRepeatMode(readString(data, table));
+            r.setColor(data.readInt());
+            r.setAllDay((flags & FLAG_ALL_DAY) != 0);
+            r.setCompleted((flags & FLAG_COMPLETED) != 0);
+            r.setHideFromWidget((flags & FLAG_HIDE_FROM_WIDGET) != 0);
+            r.setRepeatDayMask((flags >>> DAY_MASK_SHIFT) & DayMask.ALL_BITS);
+            if ((flags & FLAG_REPEAT_INTERVAL) != 0)
+                r.setRepeatInterval(readVarint(data));
+            if ((flags & FLAG_WINDOW_START) != 0)
+                r.setWindowStart((int) readVarint(data));
+            if ((flags & FLAG_WINDOW_END) != 0)
+                r.setWindowEnd((int) readVarint(data));
+
+            sink.accept(r);
+            prevId = id;
+            prevTime = time;
+            rows++;
+        }
+    }
+
+    private static void writeString(DataOutputStream out, Map<String, Integer> table, String value)
+            throws IOException {
+        if (value == null) {
+            writeVarint(out, STRING_NULL);
+            return;
+        }
+        Integer index = table.get(value);
+        if (index != null) {
+            writeVarint(out, index + 2);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarint(out, STRING_LITERAL);
+        writeVarint(out, bytes.length);
+        out.write(bytes);
+        if (isTableCandidate(value) && table.size() < MAX_TABLE_SIZE) {
+            table.put(value, table.size());
+        }
+    }
+
+    private static String readString(DataInputStream in, List<String> table) throws IOException {
+        long ref = readVarint(in);
+        if (ref == STRING_NULL) {
+            return null;
+        } else if (ref == STRING_LITERAL) {
+            byte[] bytes = new byte[(int) readVarint(in)];
+            in.readFully(bytes);
+            String value = new String(bytes, StandardCharsets.UTF_8);
+            // Must mirror the writer exactly so indexes line up
+            if (isTableCandidate(value) && table.size() < MAX_TABLE_SIZE) {
+                table.add(value);
+            }
+            return value;
+        }
+        long index = ref - 2;
+        if (index >= table.size()) {
+            throw new IOException("Bad string reference " + index);
+        }
+        return table.get((int) index);
+    }
+
+    private static boolean isTableCandidate(String value) {
+        return value.length() <= MAX_TABLED_LENGTH;
+    }
+
+    static void writeVarint(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    static long readVarint(DataInputStream in) throws IOException {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException();
+            }
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
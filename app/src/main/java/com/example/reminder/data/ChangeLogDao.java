@@ -0,0 +1,40 @@
+package com.example.reminder.data;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.Query;
+
+import java.util.List;
+
+@Dao
+public interface ChangeLogDao {
+
+    @Insert
+    void insertEntries(List<ChangeLogEntry> entries);
+
+    // Live rows changed after :afterSeq, in the reminders column layout the backup encoders expect.
+    // Driven from the log (a seq range, then primary key lookups) so a delta costs what changed, not the
+    // table; CROSS JOIN keeps that join order. Only the changed rows are sorted, into the encoders' time order.
+    @Query("SELECT r.* FROM (SELECT DISTINCT reminderId FROM change_log WHERE seq > :afterSeq) c "
+            + "CROSS JOIN reminders r ON r.id = c.reminderId "
+            + "WHERE r.deletedAt = 0 ORDER BY r.timeMillis ASC, r.id ASC")
+    android.database.Cursor getChangedRemindersCursor(long afterSeq);
+
+    // Changed after :afterSeq and no longer live: deleted, tombstoned or archived
+    @Query("SELECT DISTINCT c.reminderId FROM change_log c WHERE c.seq > :afterSeq AND NOT EXISTS "
+            + "(SELECT 1 FROM reminders r WHERE r.id = c.reminderId AND r.deletedAt = 0)")
+    List<Integer> getRemovedIds(long afterSeq);
+
+    @Query("SELECT COUNT(*) FROM change_log WHERE seq > :afterSeq")
+    int countAfter(long afterSeq);
+
+    @Query("DELETE FROM change_log WHERE seq <= :seq")
+    int trimThrough(long seq);
+
+    // Entries are appended in time order, so the old ones are a seq prefix: walk from the start to the
+    // first entry at or after :cutoff and delete by seq below it (everything if there is none)
+    @Query("DELETE FROM change_log WHERE seq < COALESCE("
+            + "(SELECT seq FROM change_log WHERE changedAt >= :cutoff ORDER BY seq ASC LIMIT 1), "
+            + "(SELECT MAX(seq) + 1 FROM change_log))")
+    int trimOlderThan(long cutoff);
+}
@@ -0,0 +1,50 @@
+package com.example.reminder.data;
+
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+/**
+ * One row per reminder mutation, appended in the same transaction as the write
+ * itself. {@code seq} only ever grows (AUTOINCREMENT), so "everything changed
+ * since the last uploaded backup" is a range scan on the primary key.
+ */
+@Entity(tableName = "change_log")
+public class ChangeLogEntry {
+
+    public static final int OP_UPSERT = 0;
+    public static final int OP_DELETE = 1;
+
+    @PrimaryKey(autoGenerate = true)
+    private final long seq;
+    private final int reminderId;
+    private final int op;
+    private final long changedAt;
+
+    public ChangeLogEntry(long seq, int reminderId, int op, long changedAt) {
+        this.seq = seq;
+        this.reminderId = reminderId;
+        this.op = op;
+        this.changedAt = changedAt;
+    }
+
+    @androidx.room.Ignore
+    public ChangeLogEntry(int reminderId, int op, long changedAt) {
+        this(0, reminderId, op, changedAt);
+    }
+
+    public long getSeq() {
+        return seq;
+    }
+
+    public int getReminderId() {
+        return reminderId;
+    }
+
+    public int getOp() {
+        return op;
+    }
+
+    public long getChangedAt() {
+        return changedAt;
+    }
+}
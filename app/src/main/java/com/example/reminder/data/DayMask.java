@@ -0,0 +1,132 @@
+package com.example.reminder.data;
+
+/**
+ * Immutable set of weekdays packed into the low 7 bits of an int.
+ * Bit (day - 1) is set for each {@link java.util.Calendar#DAY_OF_WEEK} value,
+ * so Sunday is bit 0 and Saturday is bit 6. Reminders persist the raw bits;
+ * hot paths test them with {@link #contains(int, int)} without allocating.
+ */
+public final class DayMask {
+
+    public static final int ALL_BITS = 0x7F;
+
+    // Only 128 possible values, so every instance is shared
+    private static final DayMask[] CACHE = new DayMask[ALL_BITS + 1];
+
+    static {
+        for (int i = 0; i <= ALL_BITS; i++) {
+            CACHE[i] = new DayMask(i);
+        }
+    }
+
+    public static final DayMask NONE = CACHE[0];
+    public static final DayMask EVERY_DAY = CACHE[ALL_BITS];
+
+    private final int bits;
+
+    private DayMask(int bits) {
+        this.bits = bits;
+    }
+
+    public static DayMask of(int bits) {
+        return CACHE[bits & ALL_BITS];
+    }
+
+    public static DayMask ofDays(int... calendarDays) {
+        int bits = 0;
+        for (int day : calendarDays) {
+            bits |= bit(day);
+        }
+        return of(bits);
+    }
+
+    /** Single-day bit for a Calendar.DAY_OF_WEEK value (1 = Sunday ... 7 = Saturday). */
+    public static int bit(int calendarDay) {
+        return 1 << (calendarDay - 1);
+    }
+
+    public static boolean contains(int bits, int calendarDay) {
+        return (bits & bit(calendarDay)) != 0;
+    }
+
+    /**
+     * Parses the legacy CSV form ("1,2,3"). Unknown or malformed entries are
+     * skipped, so null, empty or garbage input yields {@link #NONE}.
+     */
+    public static DayMask fromCsv(String csv) {
+        if (csv == null || csv.isEmpty()) {
+            return NONE;
+        }
+        int bits = 0;
+        for (String part : csv.split(",")) {
+            try {
+                int day = Integer.parseInt(part.trim());
+                if (day >= java.util.Calendar.SUNDAY && day <= java.util.Calendar.SATURDAY) {
+                    bits |= bit(day);
+                }
+            } catch (NumberFormatException ignored) {
+            }
+        }
+        return of(bits);
+    }
+
+    public int bits() {
+        return bits;
+    }
+
+    public boolean contains(int calendarDay) {
+        return contains(bits, calendarDay);
+    }
+
+    public DayMask with(int calendarDay) {
+        return of(bits | bit(calendarDay));
+    }
+
+    public DayMask without(int calendarDay) {
+        return of(bits & ~bit(calendarDay));
+    }
+
+    public DayMask union(DayMask other) {
+        return of(bits | other.bits);
+    }
+
+    public boolean isEmpty() {
+        return bits == 0;
+    }
+
+    public boolean isEveryDay() {
+        return bits == ALL_BITS;
+    }
+
+    public int size() {
+        return Integer.bitCount(bits);
+    }
+
+    /** CSV form in Sunday-first order, e.g. "2,3,4,5,6" for weekdays. */
+    public String toCsv() {
+        StringBuilder sb = new StringBuilder();
+        for (int day = java.util.Calendar.SUNDAY; day <= java.util.Calendar.SATURDAY; day++) {
+            if (contains(day)) {
+                if (sb.length() > 0)
+                    sb.append(",");
+                sb.append(day);
+            }
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof DayMask && ((DayMask) o).bits == bits;
+    }
+
+    @Override
+    public int hashCode() {
+        return bits;
+    }
+
+    @Override
+    public String toString() {
+        return "DayMask[" + toCsv() + "]";
+    }
+}
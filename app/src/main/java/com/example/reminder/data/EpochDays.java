@@ -0,0 +1,107 @@
+package com.example.reminder.data;
+
+import android.database.Cursor;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteStatement;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.function.Consumer;
+
+/**
+ * Local calendar day numbers (days since 1970-01-01 in the device time zone).
+ * Reminders persist theirs in {@code localEpochDay} at write time so readers can
+ * bucket and compare days with plain integer math.
+ */
+public final class EpochDays {
+
+    private static final long SECONDS_PER_DAY = 86400L;
+
+    private EpochDays() {
+    }
+
+    public static long of(long timeMillis) {
+        return of(timeMillis, ZoneId.systemDefault());
+    }
+
+    public static long of(long timeMillis, ZoneId zone) {
+        int offsetSeconds = zone.getRules().getOffset(Instant.ofEpochMilli(timeMillis)).getTotalSeconds();
+        return Math.floorDiv(Math.floorDiv(timeMillis, 1000L) + offsetSeconds, SECONDS_PER_DAY);
+    }
+
+    public static long today() {
+        return of(System.currentTimeMillis());
+    }
+
+    // Rows read, compared and rewritten per transaction by the recompute passes
+    static final int RECOMPUTE_CHUNK = 500;
+
+    /**
+     * Brings localEpochDay of every reminder in line with the current zone. Used by
+     * the migration that introduced the column and after time zone changes. Rows
+     * whose day is unchanged are not written, so their FTS sync triggers never fire.
+     * The table is walked by id in chunks of {@link #RECOMPUTE_CHUNK}, each passed
+     * to {@code inTransaction}; returns the number of rows rewritten.
+     */
+    static int recomputeAll(SupportSQLiteDatabase database, Consumer<Runnable> inTransaction) {
+        ZoneId zone = ZoneId.systemDefault();
+        SupportSQLiteStatement update = database
+                .compileStatement("UPDATE reminders SET localEpochDay = ? WHERE id = ?");
+        long[] lastId = { Long.MIN_VALUE };
+        int[] rows = new int[1];
+        int[] changed = new int[1];
+        do {
+            rows[0] = 0;
+            inTransaction.accept(() -> {
+                try (Cursor cursor = database.query("SELECT id, timeMillis, localEpochDay FROM reminders "
+                        + "WHERE id > ? ORDER BY id ASC LIMIT " + RECOMPUTE_CHUNK, new Object[] { lastId[0] })) {
+                    while (cursor.moveToNext()) {
+                        rows[0]++;
+                        lastId[0] = cursor.getLong(0);
+                        long day = of(cursor.getLong(1), zone);
+                        if (day != cursor.getLong(2)) {
+                            update.bindLong(1, day);
+                            update.bindLong(2, lastId[0]);
+                            update.executeUpdateDelete();
+                            changed[0]++;
+                        }
+                    }
+                }
+            });
+        } while (rows[0] == RECOMPUTE_CHUNK);
+        return changed[0];
+    }
+
+    /** Same as {@link #recomputeAll} for the expanded occurrences table, walked by its primary key. */
+    static int recomputeOccurrences(SupportSQLiteDatabase database, Consumer<Runnable> inTransaction) {
+        ZoneId zone = ZoneId.systemDefault();
+        SupportSQLiteStatement update = database.compileStatement(
+                "UPDATE occurrences SET localEpochDay = ? WHERE reminderId = ? AND fireTime = ?");
+        long[] last = { Long.MIN_VALUE, Long.MIN_VALUE }; // reminderId, fireTime
+        int[] rows = new int[1];
+        int[] changed = new int[1];
+        do {
+            rows[0] = 0;
+            inTransaction.accept(() -> {
+                try (Cursor cursor = database.query("SELECT reminderId, fireTime, localEpochDay FROM occurrences "
+                        + "WHERE reminderId >= ? AND (reminderId > ? OR fireTime > ?) "
+                        + "ORDER BY reminderId ASC, fireTime ASC LIMIT " + RECOMPUTE_CHUNK,
+                        new Object[] { last[0], last[0], last[1] })) {
+                    while (cursor.moveToNext()) {
+                        rows[0]++;
+                        last[0] = cursor.getLong(0);
+                        last[1] = cursor.getLong(1);
+                        long day = of(last[1], zone);
+                        if (day != cursor.getLong(2)) {
+                            update.bindLong(1, day);
+                            update.bindLong(2, last[0]);
+                            update.bindLong(3, last[1]);
+                            update.executeUpdateDelete();
+                            changed[0]++;
+                        }
+                    }
+                }
+            });
+        } while (rows[0] == RECOMPUTE_CHUNK);
+        return changed[0];
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.reminder.data;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Queue depth and queueing delay of one repository executor. Tasks are
+ * wrapped on submission; the wait is the time from when a task could have
+ * started (submission, or the end of its schedule delay) until a thread
+ * actually picked it up.
+ */
+public final class ExecutorMetrics {
+
+    private final String name;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger maxQueued = new AtomicInteger();
+    private final AtomicLong started = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    ExecutorMetrics(String name) {
+        this.name = name;
+    }
+
+    Runnable wrap(Runnable task) {
+        return wrap(task, 0);
+    }
+
+    Runnable wrap(Runnable task, long delayMillis) {
+        long readyAt = System.nanoTime() + delayMillis * 1_000_000L;
+        int depth = queued.incrementAndGet();
+        maxQueued.accumulateAndGet(depth, Math::max);
+        return () -> {
+            queued.decrementAndGet();
+            long wait = Math.max(0, System.nanoTime() - readyAt);
+            started.incrementAndGet();
+            totalWaitNanos.addAndGet(wait);
+            maxWaitNanos.accumulateAndGet(wait, Math::max);
+            task.run();
+        };
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /** Tasks submitted but not yet started. */
+    public int getQueueDepth() {
+        return queued.get();
+    }
+
+    public int getMaxQueueDepth() {
+        return maxQueued.get();
+    }
+
+    public long getStartedCount() {
+        return started.get();
+    }
+
+    public double getAverageWaitMillis() {
+        long count = started.get();
+        return count == 0 ? 0 : totalWaitNanos.get() / 1e6 / count;
+    }
+
+    public double getMaxWaitMillis() {
+        return maxWaitNanos.get() / 1e6;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(java.util.Locale.US, "%s: queued=%d (max %d), started=%d, wait avg=%.1fms max=%.1fms",
+                name, getQueueDepth(), getMaxQueueDepth(), getStartedCount(), getAverageWaitMillis(),
+                getMaxWaitMillis());
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.reminder.data;
+
+import java.util.Locale;
+
+/**
+ * Turns free text typed by the user into FTS4 MATCH expressions.
+ * Input is split into letter/digit tokens and lower-cased, so punctuation and
+ * FTS operators (OR, NOT, NEAR, quotes) can never change the query's meaning.
+ */
+final class FtsQuery {
+
+    private FtsQuery() {
+    }
+
+    /** Every token as a prefix term ("wat gla" -> "wat* gla*"), or null if nothing searchable. */
+    static String prefixMatch(String text) {
+        return build(text, null);
+    }
+
+    /** Same as {@link #prefixMatch} but restricted to one column ("title:wat* title:gla*"). */
+    static String columnPrefixMatch(String column, String text) {
+        return build(text, column);
+    }
+
+    private static String build(String text, String column) {
+        if (text == null) {
+            return null;
+        }
+        StringBuilder match = new StringBuilder();
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (token.isEmpty()) {
+                continue;
+            }
+            if (match.length() > 0) {
+                match.append(' ');
+            }
+            if (column != null) {
+                match.append(column).append(':');
+            }
+            match.append(token).append('*');
+        }
+        return match.length() == 0 ? null : match.toString();
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.reminder.data;
+
+import androidx.room.Entity;
+import androidx.room.Index;
+
+/**
+ * One expanded fire time of a reminder. The table holds the next few
+ * occurrences of every active reminder (see {@link OccurrenceExpander}) so
+ * "what fires between A and B" is a single range scan on fireTime instead of
+ * re-running the repeat rules per row.
+ */
+@Entity(tableName = "occurrences", primaryKeys = { "reminderId", "fireTime" }, indices = {
+        @Index("fireTime")
+})
+public class Occurrence {
+
+    private final int reminderId;
+    private final long fireTime;
+    private final long localEpochDay;
+
+    public Occurrence(int reminderId, long fireTime, long localEpochDay) {
+        this.reminderId = reminderId;
+        this.fireTime = fireTime;
+        this.localEpochDay = localEpochDay;
+    }
+
+    public int getReminderId() {
+        return reminderId;
+    }
+
+    public long getFireTime() {
+        return fireTime;
+    }
+
+    public long getLocalEpochDay() {
+        return localEpochDay;
+    }
+}
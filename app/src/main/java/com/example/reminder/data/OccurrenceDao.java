@@ -0,0 +1,36 @@
+package com.example.reminder.data;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+
+import java.util.List;
+
+@Dao
+public interface OccurrenceDao {
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void insertOccurrences(List<Occurrence> occurrences);
+
+    @Query("SELECT fireTime FROM occurrences WHERE reminderId = :reminderId ORDER BY fireTime ASC")
+    List<Long> getFireTimesSync(int reminderId);
+
+    @Query("DELETE FROM occurrences WHERE reminderId = :reminderId AND fireTime < :before")
+    void deleteBefore(int reminderId, long before);
+
+    @Query("DELETE FROM occurrences WHERE reminderId = :reminderId AND fireTime >= :from")
+    void deleteFrom(int reminderId, long from);
+
+    @Query("DELETE FROM occurrences WHERE reminderId = :reminderId")
+    void deleteForReminder(int reminderId);
+
+    // Rows whose reminder is gone, deleted or completed (e.g. written outside the repository)
+    @Query("DELETE FROM occurrences WHERE reminderId NOT IN "
+            + "(SELECT id FROM reminders WHERE deletedAt = 0 AND isCompleted = 0)")
+    void deleteOrphans();
+
+    /** Everything firing in [start, end), in fire order. */
+    @Query("SELECT * FROM occurrences WHERE fireTime >= :start AND fireTime < :end ORDER BY fireTime ASC")
+    List<Occurrence> getBetweenSync(long start, long end);
+}
@@ -0,0 +1,79 @@
+package com.example.reminder.data;
+
+import com.example.reminder.utils.RecurrenceCalculator;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps the occurrences table in step with reminder writes. Must run inside
+ * the transaction that wrote the reminder.
+ *
+ * Syncing is incremental: occurrences already consumed (before the reminder's
+ * current timeMillis) are dropped, stored rows that still match the freshly
+ * expanded series are kept, and only the differing tail is rewritten. When an
+ * alarm advances a repeating reminder by one step this is one delete and one
+ * insert; an edited rule rewrites the whole series.
+ */
+class OccurrenceExpander {
+
+    // Cap per reminder, so minute-level intervals cannot flood the table. Calendar reads continue a
+    // series past the cap or the horizon on the fly (ReminderRepository#getSeriesTailsBetweenSync).
+    static final int MAX_PER_REMINDER = 32;
+    // Expand as far as the calendar's six-week grid reaches
+    static final long HORIZON_MS = 42L * 24 * 60 * 60 * 1000;
+    // The startup top-up leaves series alone until they fall this far behind the horizon
+    static final long TOP_UP_SLACK_MS = 7L * 24 * 60 * 60 * 1000;
+
+    private final OccurrenceDao occurrenceDao;
+
+    OccurrenceExpander(OccurrenceDao occurrenceDao) {
+        this.occurrenceDao = occurrenceDao;
+    }
+
+    void sync(int reminderId, Reminder reminder, long now) {
+        if (reminder.isCompleted()) {
+            occurrenceDao.deleteForReminder(reminderId);
+            return;
+        }
+        occurrenceDao.deleteBefore(reminderId, reminder.getTimeMillis());
+
+        List<Long> stored = occurrenceDao.getFireTimesSync(reminderId);
+        List<Long> expected = expand(reminder, now + HORIZON_MS);
+
+        int keep = 0;
+        int common = Math.min(stored.size(), expected.size());
+        while (keep < common && stored.get(keep).longValue() == expected.get(keep).longValue()) {
+            keep++;
+        }
+        if (keep < stored.size()) {
+            occurrenceDao.deleteFrom(reminderId, stored.get(keep));
+        }
+        if (keep < expected.size()) {
+            List<Occurrence> tail = new ArrayList<>(expected.size() - keep);
+            for (int i = keep; i < expected.size(); i++) {
+                long fireTime = expected.get(i);
+                tail.add(new Occurrence(reminderId, fireTime, EpochDays.of(fireTime)));
+            }
+            occurrenceDao.insertOccurrences(tail);
+        }
+    }
+
+    void remove(int reminderId) {
+        occurrenceDao.deleteForReminder(reminderId);
+    }
+
+    // The reminder's own time always counts; repeats follow up to the horizon
+    private static List<Long> expand(Reminder reminder, long horizonEnd) {
+        List<Long> times = new ArrayList<>();
+        long time = reminder.getTimeMillis();
+        times.add(time);
+        while (times.size() < MAX_PER_REMINDER) {
+            long next = RecurrenceCalculator.next(reminder, time);
+            if (next <= time || next > horizonEnd)
+                break;
+            times.add(next);
+            time = next;
+        }
+        return times;
+    }
+}
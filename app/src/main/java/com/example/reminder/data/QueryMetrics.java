@@ -0,0 +1,244 @@
+package com.example.reminder.data;
+
+import androidx.annotation.NonNull;
+import androidx.room.RoomDatabase;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Field latency of database access, kept in memory only.
+ *
+ * Repository and pager calls are timed per DAO method into log2 histograms
+ * (bucket i counts calls of 2^i to 2^(i+1) microseconds), together with the
+ * rows they returned. The most recent calls, with their thread, go into a
+ * fixed ring. Room's {@link RoomDatabase.QueryCallback} additionally counts
+ * every statement Room runs, including LiveData queries the wrappers cannot
+ * time. Everything is lock-free so recording never blocks a query.
+ */
+@Singleton
+public final class QueryMetrics implements RoomDatabase.QueryCallback {
+
+    static final int BUCKETS = 21; // 1us .. ~1s, the last bucket is open-ended
+    static final int RING_SIZE = 256;
+    // Room's SQL comes from a fixed set of DAO queries; cap anything unexpected
+    private static final int MAX_STATEMENTS = 200;
+
+    private final ConcurrentHashMap<String, Histogram> histograms = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Statement> statements = new ConcurrentHashMap<>();
+    private final AtomicReferenceArray<Sample> ring = new AtomicReferenceArray<>(RING_SIZE);
+    private final AtomicLong ringCursor = new AtomicLong();
+
+    @Inject
+    public QueryMetrics() {
+    }
+
+    /** Runs {@code query} and records its latency and row count under {@code method}. */
+    public <T> T time(String method, Supplier<T> query) {
+        long start = System.nanoTime();
+        T result = query.get();
+        record(method, System.nanoTime() - start, rowsOf(result));
+        return result;
+    }
+
+    public void record(String method, long nanos, int rows) {
+        Histogram histogram = histograms.get(method);
+        if (histogram == null) {
+            histogram = histograms.computeIfAbsent(method, key -> new Histogram());
+        }
+        histogram.add(nanos, rows);
+
+        Sample sample = new Sample(method, nanos, rows, Thread.currentThread().getName(),
+                System.currentTimeMillis());
+        ring.set((int) (ringCursor.getAndIncrement() % RING_SIZE), sample);
+    }
+
+    /** Installed with a direct executor, so this runs on the thread issuing the statement. */
+    @Override
+    public void onQuery(@NonNull String sqlQuery, @NonNull List<?> bindArgs) {
+        Statement statement = statements.get(sqlQuery);
+        if (statement == null) {
+            if (statements.size() >= MAX_STATEMENTS) {
+                return;
+            }
+            statement = statements.computeIfAbsent(sqlQuery, key -> new Statement());
+        }
+        statement.count.incrementAndGet();
+        statement.lastThread = Thread.currentThread().getName();
+    }
+
+    public void reset() {
+        histograms.clear();
+        statements.clear();
+        for (int i = 0; i < RING_SIZE; i++) {
+            ring.set(i, null);
+        }
+    }
+
+    private static int rowsOf(Object result) {
+        if (result == null) {
+            return 0;
+        } else if (result instanceof List) {
+            return ((List<?>) result).size();
+        } else if (result instanceof Integer) {
+            return (Integer) result; // Affected-row counts
+        }
+        return 1;
+    }
+
+    public JSONObject toJson() throws JSONException {
+        JSONObject methods = new JSONObject();
+        for (Map.Entry<String, Histogram> entry : new java.util.TreeMap<>(histograms).entrySet()) {
+            methods.put(entry.getKey(), entry.getValue().toJson());
+        }
+
+        JSONObject sql = new JSONObject();
+        for (Map.Entry<String, Statement> entry : statements.entrySet()) {
+            sql.put(entry.getKey(), new JSONObject()
+                    .put("count", entry.getValue().count.get())
+                    .put("lastThread", entry.getValue().lastThread));
+        }
+
+        JSONArray recent = new JSONArray();
+        long end = ringCursor.get();
+        for (long i = Math.max(0, end - RING_SIZE); i < end; i++) {
+            Sample sample = ring.get((int) (i % RING_SIZE));
+            if (sample != null) {
+                recent.put(sample.toJson());
+            }
+        }
+
+        return new JSONObject()
+                .put("bucketUpperBoundsMicros", bucketBoundsJson())
+                .put("methods", methods)
+                .put("statements", sql)
+                .put("recent", recent);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, Histogram> entry : new java.util.TreeMap<>(histograms).entrySet()) {
+            Histogram h = entry.getValue();
+            sb.append(String.format(java.util.Locale.US,
+                    "%s\n  n=%d avg=%.2fms p50<%.2fms p95<%.2fms max=%.2fms rows=%.1f\n",
+                    entry.getKey(), h.count.get(), h.meanMillis(), h.percentileMillis(0.50),
+                    h.percentileMillis(0.95), h.max.get() / 1e6, h.meanRows()));
+        }
+        return sb.toString();
+    }
+
+    private static JSONArray bucketBoundsJson() {
+        JSONArray bounds = new JSONArray();
+        for (int i = 0; i < BUCKETS - 1; i++) {
+            bounds.put(1L << (i + 1));
+        }
+        return bounds;
+    }
+
+    static int bucketOf(long nanos) {
+        long micros = nanos / 1000;
+        if (micros <= 0) {
+            return 0;
+        }
+        return Math.min(BUCKETS - 1, 63 - Long.numberOfLeadingZeros(micros));
+    }
+
+    static final class Histogram {
+        final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+        final AtomicLong count = new AtomicLong();
+        final AtomicLong totalNanos = new AtomicLong();
+        final AtomicLong max = new AtomicLong();
+        final AtomicLong totalRows = new AtomicLong();
+
+        void add(long nanos, int rows) {
+            buckets.incrementAndGet(bucketOf(nanos));
+            count.incrementAndGet();
+            totalNanos.addAndGet(nanos);
+            max.accumulateAndGet(nanos, Math::max);
+            totalRows.addAndGet(rows);
+        }
+
+        double meanMillis() {
+            long n = count.get();
+            return n == 0 ? 0 : totalNanos.get() / 1e6 / n;
+        }
+
+        double meanRows() {
+            long n = count.get();
+            return n == 0 ? 0 : (double) totalRows.get() / n;
+        }
+
+        /** Upper bound of the bucket holding the given quantile. */
+        double percentileMillis(double quantile) {
+            long n = count.get();
+            if (n == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(quantile * n);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += buckets.get(i);
+                if (seen >= rank) {
+                    return i == BUCKETS - 1 ? max.get() / 1e6 : (1L << (i + 1)) / 1e3;
+                }
+            }
+            return max.get() / 1e6;
+        }
+
+        JSONObject toJson() throws JSONException {
+            JSONArray counts = new JSONArray();
+            for (int i = 0; i < BUCKETS; i++) {
+                counts.put(buckets.get(i));
+            }
+            return new JSONObject()
+                    .put("count", count.get())
+                    .put("meanMs", meanMillis())
+                    .put("p50Ms", percentileMillis(0.50))
+                    .put("p95Ms", percentileMillis(0.95))
+                    .put("p99Ms", percentileMillis(0.99))
+                    .put("maxMs", max.get() / 1e6)
+                    .put("meanRows", meanRows())
+                    .put("buckets", counts);
+        }
+    }
+
+    static final class Statement {
+        final AtomicLong count = new AtomicLong();
+        volatile String lastThread;
+    }
+
+    static final class Sample {
+        final String method;
+        final long nanos;
+        final int rows;
+        final String thread;
+        final long wallTime;
+
+        Sample(String method, long nanos, int rows, String thread, long wallTime) {
+            this.method = method;
+            this.nanos = nanos;
+            this.rows = rows;
+            this.thread = thread;
+            this.wallTime = wallTime;
+        }
+
+        JSONObject toJson() throws JSONException {
+            return new JSONObject()
+                    .put("method", method)
+                    .put("ms", nanos / 1e6)
+                    .put("rows", rows)
+                    .put("thread", thread)
+                    .put("at", wallTime);
+        }
+    }
+}
@@ -1,10 +1,17 @@
 package com.example.reminder.data;
 
 import androidx.room.Entity;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 import java.io.Serializable;
 
-@Entity(tableName = "reminders")
+// Every live-row query filters deletedAt = 0, so the indexes lead with it
+@Entity(tableName = "reminders", indices = {
+        @Index({ "deletedAt", "timeMillis" }),
+        @Index("localEpochDay"),
+        @Index({ "deletedAt", "isCompleted", "timeMillis" }),
+        @Index({ "deletedAt", "isCompleted", "hideFromWidget", "timeMillis" })
+})
 public class Reminder implements Serializable {
 
     @PrimaryKey(autoGenerate = true)
@@ -34,6 +41,27 @@ public class Reminder implements Serializable {
         this.isCompleted = false;
     }
 
+    // Field-by-field copy, so rows handed between threads are never shared
+    @androidx.room.Ignore
+    public Reminder(Reminder other) {
+        this.id = other.id;
+        this.title = other.title;
+        this.description = other.description;
+        this.timeMillis = other.timeMillis;
+        this.isAllDay = other.isAllDay;
+        this.repeatMode = other.repeatMode;
+        this.isCompleted = other.isCompleted;
+        this.color = other.color;
+        this.repeatInterval = other.repeatInterval;
+        this.hideFromWidget = other.hideFromWidget;
+        this.repeatDayMask = other.repeatDayMask;
+        this.windowStart = other.windowStart;
+        this.windowEnd = other.windowEnd;
+        this.localEpochDay = other.localEpochDay;
+        this.deletedAt = other.deletedAt;
+        this.updatedAt = other.updatedAt;
+    }
+
     public int getId() {
         return id;
     }
@@ -118,16 +146,16 @@ public class Reminder implements Serializable {
     }
 
     // Advanced Repeat Options
-    private String repeatDays; // CSV of days (1=Sun, 2=Mon, etc.)
+    private int repeatDayMask; // DayMask bits (bit 0 = Sun ... bit 6 = Sat), 0 = no day constraint
     private Integer windowStart; // Minutes from midnight (e.g. 480 = 8:00 AM)
     private Integer windowEnd; // Minutes from midnight (e.g. 1200 = 8:00 PM)
 
-    public String getRepeatDays() {
-        return repeatDays;
+    public int getRepeatDayMask() {
+        return repeatDayMask;
     }
 
-    public void setRepeatDays(String repeatDays) {
-        this.repeatDays = repeatDays;
+    public void setRepeatDayMask(int repeatDayMask) {
+        this.repeatDayMask = repeatDayMask;
     }
 
     public Integer getWindowStart() {
@@ -145,4 +173,37 @@ public class Reminder implements Serializable {
     public void setWindowEnd(Integer windowEnd) {
         this.windowEnd = windowEnd;
     }
+
+    // Local calendar day of timeMillis (see EpochDays), maintained by the repository on write
+    private long localEpochDay;
+
+    public long getLocalEpochDay() {
+        return localEpochDay;
+    }
+
+    public void setLocalEpochDay(long localEpochDay) {
+        this.localEpochDay = localEpochDay;
+    }
+
+    // Soft delete: 0 while live, otherwise when it was deleted (purged later, see TombstonePurgeWorker)
+    private long deletedAt;
+
+    public long getDeletedAt() {
+        return deletedAt;
+    }
+
+    public void setDeletedAt(long deletedAt) {
+        this.deletedAt = deletedAt;
+    }
+
+    // Last write through the repository (see change_log); 0 for rows never written since the column was added
+    private long updatedAt;
+
+    public long getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(long updatedAt) {
+        this.updatedAt = updatedAt;
+    }
 }
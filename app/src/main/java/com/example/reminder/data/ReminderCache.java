@@ -0,0 +1,270 @@
+package com.example.reminder.data;
+
+import android.util.SparseIntArray;
+
+/**
+ * Process-wide LRU cache of reminders keyed by primitive id.
+ * Ids map to slots through a {@link SparseIntArray} (no boxed keys) and the
+ * recency order is an intrusive doubly-linked list over int arrays, so hits
+ * allocate nothing but the reminder handed to the caller.
+ *
+ * Rows are held column by column in primitive arrays, with the immutable
+ * strings by reference and nullable window minutes as flag bits, so no
+ * Reminder (or boxed Integer) is kept per entry. Reminder is mutable; each
+ * hit builds a fresh one from the slot, and puts copy the fields out. Every
+ * invalidation bumps a stamp; a fill whose disk read started before the
+ * latest invalidation is dropped instead of caching a row that may already
+ * be stale.
+ */
+public final class ReminderCache {
+
+    static final int DEFAULT_CAPACITY = 256;
+
+    private static final int NONE = -1;
+
+    private static final int FLAG_ALL_DAY = 1;
+    private static final int FLAG_COMPLETED = 1 << 1;
+    private static final int FLAG_HIDE_FROM_WIDGET = 1 << 2;
+    private static final int FLAG_HAS_WINDOW_START = 1 << 3;
+    private static final int FLAG_HAS_WINDOW_END = 1 << 4;
+
+    private final int capacity;
+    private final SparseIntArray slotById;
+    private final int[] ids;
+    // Columns of the cached rows, indexed by slot
+    private final String[] titles;
+    private final String[] descriptions;
+    private final String[] repeatModes;
+    private final long[] timeMillis;
+    private final long[] repeatIntervals;
+    private final long[] localEpochDays;
+    private final long[] deletedAts;
+    private final long[] updatedAts;
+    private final int[] colors;
+    private final int[] repeatDayMasks;
+    private final int[] windowStarts;
+    private final int[] windowEnds;
+    private final byte[] flags;
+    private final int[] prev;
+    private final int[] next;
+    private final int[] freeSlots;
+    private int freeCount;
+    private int head = NONE; // Most recently used
+    private int tail = NONE; // Eviction candidate
+
+    private long stamp;
+    private long hits;
+    private long misses;
+    private int pendingSelfCommits;
+
+    ReminderCache(int capacity) {
+        this.capacity = capacity;
+        this.slotById = new SparseIntArray(capacity);
+        this.ids = new int[capacity];
+        this.titles = new String[capacity];
+        this.descriptions = new String[capacity];
+        this.repeatModes = new String[capacity];
+        this.timeMillis = new long[capacity];
+        this.repeatIntervals = new long[capacity];
+        this.localEpochDays = new long[capacity];
+        this.deletedAts = new long[capacity];
+        this.updatedAts = new long[capacity];
+        this.colors = new int[capacity];
+        this.repeatDayMasks = new int[capacity];
+        this.windowStarts = new int[capacity];
+        this.windowEnds = new int[capacity];
+        this.flags = new byte[capacity];
+        this.prev = new int[capacity];
+        this.next = new int[capacity];
+        this.freeSlots = new int[capacity];
+        for (int i = 0; i < capacity; i++) {
+            freeSlots[i] = capacity - 1 - i;
+        }
+        this.freeCount = capacity;
+    }
+
+    /** Returns a new reminder built from the cached row, or null on a miss. */
+    synchronized Reminder get(int id) {
+        int slot = slotById.get(id, NONE);
+        if (slot == NONE) {
+            misses++;
+            return null;
+        }
+        hits++;
+        moveToHead(slot);
+        return load(id, slot);
+    }
+
+    /** Take before reading from disk and pass to {@link #put}. */
+    synchronized long stamp() {
+        return stamp;
+    }
+
+    synchronized void put(int id, Reminder reminder, long readStamp) {
+        if (readStamp != stamp) {
+            return; // Something was invalidated while the row was being read
+        }
+        int slot = slotById.get(id, NONE);
+        if (slot == NONE) {
+            if (freeCount == 0) {
+                removeSlot(tail);
+            }
+            slot = freeSlots[--freeCount];
+            ids[slot] = id;
+            slotById.put(id, slot);
+            linkAtHead(slot);
+        } else {
+            moveToHead(slot);
+        }
+        store(slot, reminder);
+    }
+
+    synchronized void invalidate(int id) {
+        stamp++;
+        int slot = slotById.get(id, NONE);
+        if (slot != NONE) {
+            removeSlot(slot);
+        }
+    }
+
+    synchronized void clear() {
+        stamp++;
+        slotById.clear();
+        java.util.Arrays.fill(titles, null);
+        java.util.Arrays.fill(descriptions, null);
+        java.util.Arrays.fill(repeatModes, null);
+        for (int i = 0; i < capacity; i++) {
+            freeSlots[i] = capacity - 1 - i;
+        }
+        freeCount = capacity;
+        head = NONE;
+        tail = NONE;
+    }
+
+    /** Called by the writer inside a transaction whose ids it invalidates itself. */
+    synchronized void noteSelfCommit() {
+        pendingSelfCommits++;
+    }
+
+    /** The flagged transaction rolled back; forget the flag and start cold. */
+    synchronized void onWriteFailed() {
+        pendingSelfCommits = 0;
+        clear();
+    }
+
+    /**
+     * InvalidationTracker callback for the reminders table. Notifications that
+     * follow our own commits are already handled per id; anything else (a write
+     * that bypassed the repository) drops the whole cache. Notifications coalesce,
+     * so a foreign write landing together with one of ours is only caught if it
+     * also went through {@link #invalidate}.
+     */
+    synchronized void onTableInvalidated() {
+        if (pendingSelfCommits > 0) {
+            pendingSelfCommits = 0;
+            return;
+        }
+        clear();
+    }
+
+    public synchronized long getHitCount() {
+        return hits;
+    }
+
+    public synchronized long getMissCount() {
+        return misses;
+    }
+
+    public synchronized int size() {
+        return capacity - freeCount;
+    }
+
+    private void removeSlot(int slot) {
+        unlink(slot);
+        slotById.delete(ids[slot]);
+        titles[slot] = null;
+        descriptions[slot] = null;
+        repeatModes[slot] = null;
+        freeSlots[freeCount++] = slot;
+    }
+
+    private void store(int slot, Reminder reminder) {
+        titles[slot] = reminder.getTitle();
+        descriptions[slot] = reminder.getDescription();
+        repeatModes[slot] = reminder.getRepeatMode();
+        timeMillis[slot] = reminder.getTimeMillis();
+        repeatIntervals[slot] = reminder.getRepeatInterval();
+        localEpochDays[slot] = reminder.getLocalEpochDay();
+        deletedAts[slot] = reminder.getDeletedAt();
+        updatedAts[slot] = reminder.getUpdatedAt();
+        colors[slot] = reminder.getColor();
+        repeatDayMasks[slot] = reminder.getRepeatDayMask();
+        Integer windowStart = reminder.getWindowStart();
+        Integer windowEnd = reminder.getWindowEnd();
+        windowStarts[slot] = windowStart != null ? windowStart : 0;
+        windowEnds[slot] = windowEnd != null ? windowEnd : 0;
+        flags[slot] = (byte) ((reminder.isAllDay() ? FLAG_ALL_DAY : 0)
+                | (reminder.isCompleted() ? FLAG_COMPLETED : 0)
+                | (reminder.isHideFromWidget() ? FLAG_HIDE_FROM_WIDGET : 0)
+                | (windowStart != null ? FLAG_HAS_WINDOW_START : 0)
+                | (windowEnd != null ? FLAG_HAS_WINDOW_END : 0));
+    }
+
+    private Reminder load(int id, int slot) {
+        int bits = flags[slot];
+        Reminder reminder = new Reminder();
+        reminder.setId(id);
+        reminder.setTitle(titles[slot]);
+        reminder.setDescription(descriptions[slot]);
+        reminder.setRepeatMode(repeatModes[slot]);
+        reminder.setTimeMillis(timeMillis[slot]);
+        reminder.setRepeatInterval(repeatIntervals[slot]);
+        reminder.setLocalEpochDay(localEpochDays[slot]);
+        reminder.setDeletedAt(deletedAts[slot]);
+        reminder.setUpdatedAt(updatedAts[slot]);
+        reminder.setColor(colors[slot]);
+        reminder.setRepeatDayMask(repeatDayMasks[slot]);
+        reminder.setWindowStart((bits & FLAG_HAS_WINDOW_START) != 0 ? (Integer) windowStarts[slot] : null);
+        reminder.setWindowEnd((bits & FLAG_HAS_WINDOW_END) != 0 ? (Integer) windowEnds[slot] : null);
+        reminder.setAllDay((bits & FLAG_ALL_DAY) != 0);
+        reminder.setCompleted((bits & FLAG_COMPLETED) != 0);
+        reminder.setHideFromWidget((bits & FLAG_HIDE_FROM_WIDGET) != 0);
+        return reminder;
+    }
+
+    private void moveToHead(int slot) {
+        if (slot != head) {
+            unlink(slot);
+            linkAtHead(slot);
+        }
+    }
+
+    private void linkAtHead(int slot) {
+        prev[slot] = NONE;
+        next[slot] = head;
+        if (head != NONE) {
+            prev[head] = slot;
+        }
+        head = slot;
+        if (tail == NONE) {
+            tail = slot;
+        }
+    }
+
+    private void unlink(int slot) {
+        int p = prev[slot];
+        int n = next[slot];
+        if (p != NONE) {
+            next[p] = n;
+        } else {
+            head = n;
+        }
+        if (n != NONE) {
+            prev[n] = p;
+        } else {
+            tail = p;
+        }
+        prev[slot] = NONE;
+        next[slot] = NONE;
+    }
+}
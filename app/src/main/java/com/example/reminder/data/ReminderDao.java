@@ -7,7 +7,9 @@ import androidx.room.Insert;
 import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
 import androidx.room.Update;
+import androidx.room.Upsert;
 
+import java.util.Collections;
 import java.util.List;
 
 @Dao
@@ -16,33 +18,163 @@ public interface ReminderDao {
     @Insert(onConflict = OnConflictStrategy.REPLACE)
     long insertReminder(Reminder reminder);
 
+    // Upsert, not REPLACE: an existing id is updated in place, so the FTS update triggers fire
+    // and the row is never deleted. Returns -1 for rows that were updated.
+    @Upsert
+    List<Long> upsertReminders(List<Reminder> reminders);
+
     @Update
     void updateReminder(Reminder reminder);
 
+    @Update
+    void updateReminders(List<Reminder> reminders);
+
     @Delete
     void deleteReminder(Reminder reminder);
 
     @Delete
     void deleteReminders(List<Reminder> reminders);
 
-    @Query("SELECT * FROM reminders ORDER BY timeMillis ASC")
+    // Soft delete / undo: one column, no row rewrite
+    @Query("UPDATE reminders SET deletedAt = :deletedAt, updatedAt = :updatedAt WHERE id IN (:ids)")
+    void setDeletedAt(List<Integer> ids, long deletedAt, long updatedAt);
+
+    // Any row at all, live, soft-deleted or archived; restores keep backup ids only when this is 0
+    @Query("SELECT (SELECT COUNT(*) FROM reminders) + (SELECT COUNT(*) FROM archived_reminders)")
+    int countAllRows();
+
+    // The soft-deleted ones among :ids; full-row updates skip them so they never undelete a row
+    @Query("SELECT id FROM reminders WHERE deletedAt != 0 AND id IN (:ids)")
+    List<Integer> getDeletedIds(List<Integer> ids);
+
+    @Query("DELETE FROM reminders WHERE deletedAt != 0 AND deletedAt < :cutoff")
+    int purgeTombstones(long cutoff);
+
+    @Query("SELECT * FROM reminders WHERE deletedAt = 0 ORDER BY timeMillis ASC")
     LiveData<List<Reminder>> getAllReminders();
 
-    @Query("SELECT * FROM reminders ORDER BY timeMillis ASC")
+    @Query("SELECT * FROM reminders WHERE deletedAt = 0 ORDER BY timeMillis ASC")
     List<Reminder> getAllRemindersSync();
 
-    @Query("SELECT * FROM reminders WHERE id = :id")
+    // Raw cursor for the streaming backup exports; time order keeps the binary format's deltas small.
+    // The caller closes it.
+    @Query("SELECT * FROM reminders WHERE deletedAt = 0 ORDER BY timeMillis ASC, id ASC")
+    android.database.Cursor getAllRemindersCursor();
+
+    // Keyset pages over (timeMillis, id); the leading timeMillis bound keeps each page an index range scan
+    @Query("SELECT * FROM reminders WHERE deletedAt = 0 ORDER BY timeMillis ASC, id ASC LIMIT :limit")
+    List<Reminder> getFirstPage(int limit);
+
+    @Query("SELECT * FROM reminders WHERE deletedAt = 0 "
+            + "AND timeMillis >= :timeMillis AND (timeMillis > :timeMillis OR id > :id) "
+            + "ORDER BY timeMillis ASC, id ASC LIMIT :limit")
+    List<Reminder> getPageAfter(long timeMillis, int id, int limit);
+
+    @Query("SELECT * FROM reminders WHERE deletedAt = 0 "
+            + "AND timeMillis <= :timeMillis AND (timeMillis < :timeMillis OR id < :id) "
+            + "ORDER BY timeMillis DESC, id DESC LIMIT :limit")
+    List<Reminder> getPageBefore(long timeMillis, int id, int limit);
+
+    // Half-open range [start, end) so adjacent windows never overlap
+    @Query("SELECT * FROM reminders WHERE deletedAt = 0 AND timeMillis >= :start AND timeMillis < :end "
+            + "ORDER BY timeMillis ASC")
+    LiveData<List<Reminder>> getRemindersBetween(long start, long end);
+
+    @Query("SELECT * FROM reminders WHERE deletedAt = 0 AND timeMillis >= :start AND timeMillis < :end "
+            + "ORDER BY timeMillis ASC")
+    List<Reminder> getRemindersBetweenSync(long start, long end);
+
+    // Active reminders come from their expanded occurrences (so repeats show on every day they
+    // fire); completed reminders have none and are matched on their own time instead.
+    @Query("SELECT r.id AS id, r.title AS title, o.fireTime AS timeMillis, o.localEpochDay AS localEpochDay, "
+            + "r.isCompleted AS isCompleted, r.color AS color "
+            + "FROM occurrences o JOIN reminders r ON r.id = o.reminderId "
+            + "WHERE o.fireTime >= :start AND o.fireTime < :end "
+            + "UNION ALL "
+            + "SELECT id, title, timeMillis, localEpochDay, isCompleted, color FROM reminders "
+            + "WHERE deletedAt = 0 AND isCompleted = 1 AND timeMillis >= :start AND timeMillis < :end "
+            + "ORDER BY timeMillis ASC")
+    LiveData<List<ReminderListRow>> getListRowsBetween(long start, long end);
+
+    // One row per occurrence, carrying that occurrence's fire time as timeMillis
+    @Query("SELECT r.id, r.title, r.description, o.fireTime AS timeMillis, r.isAllDay, r.repeatMode, "
+            + "r.isCompleted, r.color, r.repeatInterval, r.hideFromWidget, r.repeatDayMask, r.windowStart, "
+            + "r.windowEnd, o.localEpochDay AS localEpochDay, r.deletedAt, r.updatedAt "
+            + "FROM occurrences o JOIN reminders r ON r.id = o.reminderId "
+            + "WHERE o.fireTime >= :start AND o.fireTime < :end "
+            + "UNION ALL "
+            + "SELECT id, title, description, timeMillis, isAllDay, repeatMode, isCompleted, color, repeatInterval, "
+            + "hideFromWidget, repeatDayMask, windowStart, windowEnd, localEpochDay, deletedAt, updatedAt "
+            + "FROM reminders WHERE deletedAt = 0 AND isCompleted = 1 "
+            + "AND timeMillis >= :start AND timeMillis < :end "
+            + "ORDER BY timeMillis ASC")
+    LiveData<List<Reminder>> getRemindersFiringBetween(long start, long end);
+
+    @Query("SELECT * FROM reminders WHERE id = :id AND deletedAt = 0")
     LiveData<Reminder> getReminderById(int id);
 
-    @Query("SELECT * FROM reminders WHERE id = :id")
+    @Query("SELECT * FROM reminders WHERE id = :id AND deletedAt = 0")
     Reminder getReminderByIdSync(int id);
 
-    @Query("SELECT * FROM reminders WHERE isCompleted = 0 ORDER BY timeMillis ASC")
+    @Query("SELECT * FROM reminders WHERE deletedAt = 0 AND isCompleted = 0 ORDER BY timeMillis ASC")
     LiveData<List<Reminder>> getActiveReminders();
 
-    @Query("SELECT * FROM reminders WHERE isCompleted = 0 ORDER BY timeMillis ASC")
+    @Query("SELECT * FROM reminders WHERE deletedAt = 0 AND isCompleted = 0 ORDER BY timeMillis ASC")
     List<Reminder> getActiveRemindersSync();
 
-    @Query("SELECT * FROM reminders WHERE isCompleted = 0 AND hideFromWidget = 0 ORDER BY timeMillis ASC")
-    List<Reminder> getWidgetRemindersSync();
+    // Active reminders whose expanded series needs extending: none stored yet, or a repeating
+    // series below the cap whose last stored fire time is before :before
+    @Query("SELECT r.* FROM reminders r LEFT JOIN "
+            + "(SELECT reminderId, MAX(fireTime) AS lastFire, COUNT(*) AS stored "
+            + "FROM occurrences GROUP BY reminderId) o "
+            + "ON o.reminderId = r.id "
+            + "WHERE r.deletedAt = 0 AND r.isCompleted = 0 AND (o.reminderId IS NULL "
+            + "OR (r.repeatMode IS NOT NULL AND r.repeatMode != 'NONE' AND o.stored < :maxPerReminder "
+            + "AND o.lastFire < :before))")
+    List<Reminder> getRemindersNeedingTopUp(long before, int maxPerReminder);
+
+    // Active repeating reminders with the last stored fire time of each (a primary key probe per row), so
+    // calendar reads can continue a series past what OccurrenceExpander materialised
+    @Query("SELECT r.*, (SELECT MAX(o.fireTime) FROM occurrences o WHERE o.reminderId = r.id) AS lastFire "
+            + "FROM reminders r WHERE r.deletedAt = 0 AND r.isCompleted = 0 "
+            + "AND r.repeatMode IS NOT NULL AND r.repeatMode != 'NONE'")
+    List<SeriesTail> getSeriesTailsSync();
+
+    // Alarm scheduling: both are range scans on the (deletedAt, isCompleted, timeMillis) index
+    @Query("SELECT MIN(timeMillis) FROM reminders WHERE deletedAt = 0 AND isCompleted = 0 AND timeMillis > :after")
+    Long getNextDueTime(long after);
+
+    @Query("SELECT * FROM reminders WHERE deletedAt = 0 AND isCompleted = 0 "
+            + "AND timeMillis > :after AND timeMillis <= :until ORDER BY timeMillis ASC, id ASC")
+    List<Reminder> getDueRemindersSync(long after, long until);
+
+    // Keyset chunk on the primary key: active repeating reminders whose time is at or before :before.
+    // The unary + keeps SQLite off the (deletedAt, isCompleted, timeMillis) index, which would need a temp
+    // B-tree to sort every stale row by id; walking the key stops as soon as the chunk is full.
+    @Query("SELECT * FROM reminders WHERE id > :afterId AND +deletedAt = 0 AND +isCompleted = 0 "
+            + "AND repeatMode IS NOT NULL AND repeatMode != 'NONE' AND +timeMillis <= :before "
+            + "ORDER BY id ASC LIMIT :limit")
+    List<Reminder> getStaleRepeatsChunk(int afterId, long before, int limit);
+
+    @Query("SELECT id, title, timeMillis, localEpochDay, isCompleted FROM reminders "
+            + "WHERE deletedAt = 0 AND isCompleted = 0 AND hideFromWidget = 0 ORDER BY timeMillis ASC")
+    List<WidgetRow> getWidgetRowsSync();
+
+    /**
+     * Prefix search over titles and descriptions. Rows whose title matches every
+     * term rank first, then active before completed, then by time.
+     */
+    default List<Reminder> search(String query, int limit) {
+        String match = FtsQuery.prefixMatch(query);
+        if (match == null) {
+            return Collections.emptyList();
+        }
+        return searchMatching(match, FtsQuery.columnPrefixMatch("title", query), limit);
+    }
+
+    @Query("SELECT reminders.* FROM reminders JOIN reminders_fts ON reminders.id = reminders_fts.docid "
+            + "WHERE reminders_fts MATCH :match AND reminders.deletedAt = 0 "
+            + "ORDER BY reminders.id IN (SELECT docid FROM reminders_fts WHERE reminders_fts MATCH :titleMatch) DESC, "
+            + "reminders.isCompleted ASC, reminders.timeMillis ASC LIMIT :limit")
+    List<Reminder> searchMatching(String match, String titleMatch, int limit);
 }
@@ -0,0 +1,32 @@
+package com.example.reminder.data;
+
+import androidx.room.Entity;
+import androidx.room.Fts4;
+
+/**
+ * External-content FTS4 index over reminder titles and descriptions.
+ * Room keeps it in sync with the reminders table through triggers.
+ */
+@Fts4(contentEntity = Reminder.class)
+@Entity(tableName = "reminders_fts")
+public class ReminderFts {
+
+    private String title;
+    private String description;
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+}
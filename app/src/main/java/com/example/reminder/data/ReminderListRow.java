@@ -0,0 +1,48 @@
+package com.example.reminder.data;
+
+/**
+ * Lightweight reminder summary for list-style reads such as the calendar
+ * grid, which only needs to know which day a reminder lands on and its color.
+ */
+public class ReminderListRow {
+
+    private final int id;
+    private final String title;
+    private final long timeMillis;
+    private final long localEpochDay;
+    private final boolean isCompleted;
+    private final int color;
+
+    public ReminderListRow(int id, String title, long timeMillis, long localEpochDay, boolean isCompleted, int color) {
+        this.id = id;
+        this.title = title;
+        this.timeMillis = timeMillis;
+        this.localEpochDay = localEpochDay;
+        this.isCompleted = isCompleted;
+        this.color = color;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public long getTimeMillis() {
+        return timeMillis;
+    }
+
+    public long getLocalEpochDay() {
+        return localEpochDay;
+    }
+
+    public boolean isCompleted() {
+        return isCompleted;
+    }
+
+    public int getColor() {
+        return color;
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.reminder.data;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.paging.ListenableFuturePagingSource;
+import androidx.paging.PagingState;
+import androidx.room.InvalidationTracker;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import kotlin.Unit;
+
+/**
+ * Keyset pager over reminders ordered by (timeMillis, id).
+ * Each page is a bounded index range scan that starts right after (or before)
+ * the edge row of the neighbouring page, so no OFFSET scans are needed.
+ */
+public class ReminderPagingSource extends ListenableFuturePagingSource<ReminderPagingSource.Key, Reminder> {
+
+    public static final int PAGE_SIZE = 50;
+
+    /** Position in the (timeMillis, id) ordering plus the direction to load from it. */
+    public static final class Key {
+        final long timeMillis;
+        final int id;
+        final boolean forward;
+
+        Key(long timeMillis, int id, boolean forward) {
+            this.timeMillis = timeMillis;
+            this.id = id;
+            this.forward = forward;
+        }
+
+        static Key after(Reminder reminder) {
+            return new Key(reminder.getTimeMillis(), reminder.getId(), true);
+        }
+
+        static Key before(Reminder reminder) {
+            return new Key(reminder.getTimeMillis(), reminder.getId(), false);
+        }
+    }
+
+    private final ReminderDao reminderDao;
+    private final Executor queryExecutor;
+    private final QueryMetrics queryMetrics;
+    private final InvalidationTracker invalidationTracker;
+    private final InvalidationTracker.Observer observer = new InvalidationTracker.Observer("reminders") {
+        @Override
+        public void onInvalidated(@NonNull Set<String> tables) {
+            invalidate();
+        }
+    };
+
+    ReminderPagingSource(AppDatabase database, QueryMetrics queryMetrics) {
+        this.reminderDao = database.reminderDao();
+        this.queryExecutor = database.getQueryExecutor();
+        this.queryMetrics = queryMetrics;
+        this.invalidationTracker = database.getInvalidationTracker();
+
+        // Any write to the table produces a fresh source; drop our observer once that happens
+        invalidationTracker.addObserver(observer);
+        registerInvalidatedCallback(() -> {
+            invalidationTracker.removeObserver(observer);
+            return Unit.INSTANCE;
+        });
+    }
+
+    @NonNull
+    @Override
+    public ListenableFuture<LoadResult<Key, Reminder>> loadFuture(@NonNull LoadParams<Key> params) {
+        return Futures.submit(() -> load(params.getKey(), params.getLoadSize()), queryExecutor);
+    }
+
+    private LoadResult<Key, Reminder> load(@Nullable Key key, int limit) {
+        try {
+            List<Reminder> page;
+            if (key == null) {
+                page = queryMetrics.time("getFirstPage", () -> reminderDao.getFirstPage(limit));
+            } else if (key.forward) {
+                page = queryMetrics.time("getPageAfter",
+                        () -> reminderDao.getPageAfter(key.timeMillis, key.id, limit));
+            } else {
+                page = queryMetrics.time("getPageBefore",
+                        () -> reminderDao.getPageBefore(key.timeMillis, key.id, limit));
+                Collections.reverse(page); // Queried newest-first, displayed oldest-first
+            }
+
+            if (page.isEmpty()) {
+                return new LoadResult.Page<>(page, null, null);
+            }
+
+            Reminder first = page.get(0);
+            Reminder last = page.get(page.size() - 1);
+            boolean full = page.size() >= limit;
+
+            Key prevKey;
+            Key nextKey;
+            if (key == null) {
+                prevKey = null; // Started at the head of the table
+                nextKey = full ? Key.after(last) : null;
+            } else if (key.forward) {
+                prevKey = Key.before(first);
+                nextKey = full ? Key.after(last) : null;
+            } else {
+                prevKey = full ? Key.before(first) : null;
+                nextKey = Key.after(last);
+            }
+            return new LoadResult.Page<>(page, prevKey, nextKey);
+        } catch (Exception e) {
+            android.util.Log.e("ReminderPagingSource", "Error loading page", e);
+            return new LoadResult.Error<>(e);
+        }
+    }
+
+    @Nullable
+    @Override
+    public Key getRefreshKey(@NonNull PagingState<Key, Reminder> state) {
+        Integer anchorPosition = state.getAnchorPosition();
+        if (anchorPosition == null) {
+            return null;
+        }
+        // Restart half a page above the anchor so the visible rows survive the reload
+        Reminder item = state.closestItemToPosition(Math.max(0, anchorPosition - state.getConfig().pageSize / 2));
+        if (item == null) {
+            return null;
+        }
+        // "Strictly after (t, id - 1)" includes the item itself
+        return new Key(item.getTimeMillis(), item.getId() - 1, true);
+    }
+}
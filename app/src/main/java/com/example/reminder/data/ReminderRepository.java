@@ -1,9 +1,20 @@
 package com.example.reminder.data;
 
+import androidx.annotation.NonNull;
 import androidx.lifecycle.LiveData;
+import androidx.paging.Pager;
+import androidx.paging.PagingConfig;
+import androidx.room.InvalidationTracker;
+import com.example.reminder.utils.RecurrenceCalculator;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
@@ -11,89 +22,503 @@ import javax.inject.Singleton;
 public class ReminderRepository {
 
     private final ReminderDao reminderDao;
-    private final ExecutorService executorService;
+    private final AppDatabase database;
+    // WAL lets readers run alongside the single serialized writer, so reads get their own pool
+    private static final int READ_POOL_SIZE = 2;
+
+    private final ScheduledExecutorService executorService;
+    private final ExecutorService readExecutor;
+    private final ExecutorMetrics writerMetrics = new ExecutorMetrics("writer");
+    private final ExecutorMetrics readMetrics = new ExecutorMetrics("reads");
+    private final ReminderWriteBatcher writeBatcher;
+    private final ReminderCache cache = new ReminderCache(ReminderCache.DEFAULT_CAPACITY);
+    private final QueryMetrics queryMetrics;
+
+    // Undo buffer: the last delete, kept in memory only
+    public static final long UNDO_WINDOW_MS = 10_000;
+    private final Object undoLock = new Object();
+    private List<Reminder> lastDeleted = java.util.Collections.emptyList();
+    private long lastDeletedAt;
 
     @Inject
-    public ReminderRepository(ReminderDao reminderDao) {
+    public ReminderRepository(ReminderDao reminderDao, AppDatabase database, QueryMetrics queryMetrics) {
         this.reminderDao = reminderDao;
-        this.executorService = Executors.newSingleThreadExecutor();
+        this.database = database;
+        this.queryMetrics = queryMetrics;
+        this.executorService = Executors.newSingleThreadScheduledExecutor();
+        this.readExecutor = Executors.newFixedThreadPool(READ_POOL_SIZE);
+        this.writeBatcher = new ReminderWriteBatcher(database, cache, executorService, writerMetrics,
+                queryMetrics);
+
+        // Backstop for writes that do not go through the batcher
+        database.getInvalidationTracker().addObserver(new InvalidationTracker.Observer("reminders") {
+            @Override
+            public void onInvalidated(@NonNull Set<String> tables) {
+                cache.onTableInvalidated();
+            }
+        });
     }
 
     public LiveData<List<Reminder>> getAllReminders() {
         return reminderDao.getAllReminders();
     }
 
+    /**
+     * Pager for the home list. At most {@code maxSize} rows are held in memory;
+     * pages scrolled far out of view are dropped and re-read by key on demand.
+     */
+    public Pager<ReminderPagingSource.Key, Reminder> createReminderPager() {
+        int pageSize = ReminderPagingSource.PAGE_SIZE;
+        PagingConfig config = new PagingConfig(pageSize, pageSize, false, pageSize * 2, pageSize * 4);
+        return new Pager<>(config, () -> new ReminderPagingSource(database, queryMetrics));
+    }
+
+    public LiveData<List<Reminder>> getRemindersBetween(long start, long end) {
+        return reminderDao.getRemindersBetween(start, end);
+    }
+
+    /**
+     * Reminders with an occurrence in [start, end), one per occurrence with its fire time
+     * as timeMillis, plus completed ones whose time falls there. Rows are not the stored
+     * reminders, so write through {@link #getReminderAsync} rather than updating them.
+     */
+    public LiveData<List<Reminder>> getRemindersFiringBetween(long start, long end) {
+        return withSeriesTails(reminderDao.getRemindersFiringBetween(start, end), start, end, row -> row,
+                Reminder::getTimeMillis);
+    }
+
+    public List<Reminder> getRemindersBetweenSync(long start, long end) {
+        return queryMetrics.time("getRemindersBetweenSync", () -> reminderDao.getRemindersBetweenSync(start, end));
+    }
+
+    /** Calendar rows in [start, end); repeats past the stored occurrences are expanded on the fly. */
+    public LiveData<List<ReminderListRow>> getListRowsBetween(long start, long end) {
+        return withSeriesTails(reminderDao.getListRowsBetween(start, end), start, end,
+                row -> new ReminderListRow(row.getId(), row.getTitle(), row.getTimeMillis(), row.getLocalEpochDay(),
+                        row.isCompleted(), row.getColor()),
+                ReminderListRow::getTimeMillis);
+    }
+
+    // Most rows one series adds to a single range read, so minute-level rules cannot flood a month view
+    static final int MAX_TAIL_ROWS_PER_SERIES = 1_000;
+
+    /**
+     * Adds, to every emission of {@code stored}, the occurrences in [start, end) that lie
+     * past each series' stored ones: beyond {@link OccurrenceExpander#HORIZON_MS}, past its
+     * {@link OccurrenceExpander#MAX_PER_REMINDER} cap, or not expanded yet. The stored
+     * query re-emits on any reminders or occurrences change, so the tails follow.
+     */
+    private <T> LiveData<List<T>> withSeriesTails(LiveData<List<T>> stored, long start, long end,
+            java.util.function.Function<Reminder, T> toRow, java.util.function.ToLongFunction<T> timeOf) {
+        androidx.lifecycle.MediatorLiveData<List<T>> result = new androidx.lifecycle.MediatorLiveData<>();
+        java.util.concurrent.atomic.AtomicInteger generation = new java.util.concurrent.atomic.AtomicInteger();
+        result.addSource(stored, rows -> {
+            int current = generation.incrementAndGet();
+            executeRead(() -> {
+                List<T> merged = new ArrayList<>(rows);
+                for (Reminder tail : getSeriesTailsBetweenSync(start, end)) {
+                    merged.add(toRow.apply(tail));
+                }
+                merged.sort(java.util.Comparator.comparingLong(timeOf));
+                if (generation.get() == current) { // A newer emission is on its way
+                    result.postValue(merged);
+                }
+            });
+        });
+        return result;
+    }
+
+    /**
+     * One projection row per occurrence in [start, end) after each series' last stored
+     * fire time, with that time as timeMillis. Skips straight to {@code start} with
+     * {@link RecurrenceCalculator#catchUp} instead of stepping through the gap.
+     */
+    List<Reminder> getSeriesTailsBetweenSync(long start, long end) {
+        List<Reminder> rows = new ArrayList<>();
+        for (SeriesTail tail : queryMetrics.time("getSeriesTailsSync", reminderDao::getSeriesTailsSync)) {
+            Reminder reminder = tail.getReminder();
+            long time = tail.getLastFire() != null ? tail.getLastFire() : reminder.getTimeMillis();
+            if (time >= end) {
+                continue;
+            }
+            int added = 0;
+            if (tail.getLastFire() == null && time >= start) {
+                rows.add(occurrenceRow(reminder, time)); // Not expanded yet, so its own time is missing too
+                added++;
+            }
+            time = time < start ? RecurrenceCalculator.catchUp(reminder, time, start - 1).nextTime
+                    : RecurrenceCalculator.next(reminder, time);
+            while (time > 0 && time < end && added < MAX_TAIL_ROWS_PER_SERIES) {
+                rows.add(occurrenceRow(reminder, time));
+                added++;
+                long next = RecurrenceCalculator.next(reminder, time);
+                if (next <= time)
+                    break;
+                time = next;
+            }
+        }
+        return rows;
+    }
+
+    private static Reminder occurrenceRow(Reminder reminder, long fireTime) {
+        Reminder row = new Reminder(reminder);
+        row.setTimeMillis(fireTime);
+        row.setLocalEpochDay(EpochDays.of(fireTime));
+        return row;
+    }
+
+    /** Expanded occurrences of every active reminder firing in [start, end). */
+    public List<Occurrence> getOccurrencesBetweenSync(long start, long end) {
+        return queryMetrics.time("OccurrenceDao.getBetweenSync",
+                () -> database.occurrenceDao().getBetweenSync(start, end));
+    }
+
+    /** Full-text prefix search, run off the main thread; cancel the future to drop a stale query. */
+    public ListenableFuture<List<Reminder>> search(String query, int limit) {
+        return Futures.submit(() -> queryMetrics.time("search", () -> reminderDao.search(query, limit)),
+                this::executeRead);
+    }
+
+    /**
+     * Runs {@code onChange}, on a background thread, after each commit that touches reminders
+     * or their search index, until the returned handle is run. For one-shot reads like
+     * {@link #search} that have no LiveData or PagingSource to invalidate them.
+     */
+    public Runnable observeReminderChanges(Runnable onChange) {
+        InvalidationTracker.Observer observer = new InvalidationTracker.Observer("reminders", "reminders_fts") {
+            @Override
+            public void onInvalidated(@NonNull Set<String> tables) {
+                onChange.run();
+            }
+        };
+        database.getInvalidationTracker().addObserver(observer);
+        return () -> database.getInvalidationTracker().removeObserver(observer);
+    }
+
+    /** Earliest time after {@code after} at which an active reminder is due, or null if none is. */
+    public Long getNextDueTimeSync(long after) {
+        return queryMetrics.time("getNextDueTime", () -> reminderDao.getNextDueTime(after));
+    }
+
+    /** Active reminders due in (after, until], in fire order. */
+    public List<Reminder> getDueRemindersSync(long after, long until) {
+        return queryMetrics.time("getDueRemindersSync", () -> reminderDao.getDueRemindersSync(after, until));
+    }
+
+    /** Next chunk, by id, of active repeating reminders whose stored time is at or before {@code before}. */
+    public List<Reminder> getStaleRepeatsChunkSync(int afterId, long before, int limit) {
+        return queryMetrics.time("getStaleRepeatsChunk",
+                () -> reminderDao.getStaleRepeatsChunk(afterId, before, limit));
+    }
+
+    /** True when there are no reminders at all, including soft-deleted and archived ones. */
+    public boolean isEmptySync() {
+        return queryMetrics.time("countAllRows", reminderDao::countAllRows) == 0;
+    }
+
     public LiveData<Reminder> getReminder(int id) {
         return reminderDao.getReminderById(id);
     }
 
+    /** Read-through: served from the in-memory cache when warm, from disk otherwise. */
     public Reminder getReminderSync(int id) {
-        return reminderDao.getReminderByIdSync(id);
+        Reminder cached = cache.get(id);
+        if (cached != null) {
+            return cached;
+        }
+        long stamp = cache.stamp();
+        Reminder reminder = queryMetrics.time("getReminderByIdSync", () -> reminderDao.getReminderByIdSync(id));
+        if (reminder != null) {
+            cache.put(id, reminder, stamp);
+        }
+        return reminder;
+    }
+
+    public ListenableFuture<Reminder> getReminderAsync(int id) {
+        return Futures.submit(() -> getReminderSync(id), this::executeRead);
+    }
+
+    public ExecutorMetrics getWriterMetrics() {
+        return writerMetrics;
+    }
+
+    public ExecutorMetrics getReadMetrics() {
+        return readMetrics;
+    }
+
+    public QueryMetrics getQueryMetrics() {
+        return queryMetrics;
+    }
+
+    public long getCacheHitCount() {
+        return cache.getHitCount();
     }
 
-    public void insert(Reminder reminder) {
-        executorService.execute(() -> {
-            try {
-                reminderDao.insertReminder(reminder);
-                reminderDao.insertReminder(reminder);
-            } catch (Exception e) {
-                android.util.Log.e("ReminderRepository", "Error inserting reminder", e);
+    public long getCacheMissCount() {
+        return cache.getMissCount();
+    }
+
+    // Writes are queued and committed in batches, coalescing repeated writes to the same
+    // id; the returned future completes when the batch containing the write has committed,
+    // with copies of the rows as written. The reminders passed in are never modified.
+
+    public ListenableFuture<Reminder> insert(Reminder reminder) {
+        return writeBatcher.enqueue(ReminderWriteBatcher.INSERT, reminder, null);
+    }
+
+    public ListenableFuture<Reminder> insert(Reminder reminder, OnReminderInsertedListener listener) {
+        return writeBatcher.enqueue(ReminderWriteBatcher.INSERT, reminder, listener);
+    }
+
+    public ListenableFuture<List<Reminder>> insertAll(List<Reminder> reminders) {
+        return writeBatcher.enqueueAll(ReminderWriteBatcher.INSERT, reminders);
+    }
+
+    public ListenableFuture<Reminder> update(Reminder reminder) {
+        return writeBatcher.enqueue(ReminderWriteBatcher.UPDATE, reminder, null);
+    }
+
+    public ListenableFuture<List<Reminder>> updateAll(List<Reminder> reminders) {
+        return writeBatcher.enqueueAll(ReminderWriteBatcher.UPDATE, reminders);
+    }
+
+    // Deletes are soft: the row gets a deletedAt stamp and stays restorable through
+    // undoDelete() until TombstonePurgeWorker removes it for good.
+
+    public ListenableFuture<List<Reminder>> delete(Reminder reminder) {
+        return delete(java.util.Collections.singletonList(reminder));
+    }
+
+    public ListenableFuture<List<Reminder>> delete(List<Reminder> reminders) {
+        synchronized (undoLock) {
+            lastDeleted = new ArrayList<>(reminders);
+            lastDeletedAt = System.currentTimeMillis();
+        }
+        return writeBatcher.enqueueAll(ReminderWriteBatcher.TOMBSTONE, reminders);
+    }
+
+    /**
+     * Restores the reminders of the most recent delete if it happened within
+     * {@link #UNDO_WINDOW_MS}. The future yields the restored reminders once the
+     * restore has committed, or an empty list when there was nothing to undo.
+     */
+    public ListenableFuture<List<Reminder>> undoDelete() {
+        List<Reminder> restored;
+        synchronized (undoLock) {
+            boolean inWindow = System.currentTimeMillis() - lastDeletedAt <= UNDO_WINDOW_MS;
+            restored = inWindow ? lastDeleted : java.util.Collections.emptyList();
+            lastDeleted = java.util.Collections.emptyList();
+        }
+        if (restored.isEmpty()) {
+            return Futures.immediateFuture(restored);
+        }
+        return writeBatcher.enqueueAll(ReminderWriteBatcher.RESTORE, restored);
+    }
+
+    /** Hard-deletes every tombstone older than {@code cutoff} in a single statement. */
+    public ListenableFuture<Integer> purgeTombstones(long cutoff) {
+        // Flush first so a tombstone still queued in the batcher is not missed
+        return Futures.transformAsync(writeBatcher.flush(),
+                ignored -> Futures.submit(
+                        () -> queryMetrics.time("purgeTombstones", () -> reminderDao.purgeTombstones(cutoff)),
+                        this::executeWrite),
+                MoreExecutors.directExecutor());
+    }
+
+    // Archiving moves a bounded batch per writer task, so queued user writes interleave
+    // with a large backlog instead of waiting behind one long transaction.
+    static final int ARCHIVE_BATCH_SIZE = 500;
+
+    /** Pager for the archive history screen, newest first. */
+    public Pager<ArchivePagingSource.Key, ArchivedReminder> createArchivePager() {
+        int pageSize = ArchivePagingSource.PAGE_SIZE;
+        PagingConfig config = new PagingConfig(pageSize, pageSize, false, pageSize * 2);
+        return new Pager<>(config, () -> new ArchivePagingSource(database, queryMetrics));
+    }
+
+    /**
+     * Moves live completed reminders whose time is before {@code cutoff} into the
+     * archive, one transaction per {@link #ARCHIVE_BATCH_SIZE} rows, then compacts
+     * the file. The future yields the number of reminders moved.
+     */
+    public ListenableFuture<Integer> archiveCompleted(long cutoff) {
+        // Flush first so a completion still queued in the batcher is seen
+        ListenableFuture<Integer> moved = Futures.transformAsync(writeBatcher.flush(),
+                ignored -> archiveBatches(cutoff, 0), MoreExecutors.directExecutor());
+        return Futures.transform(moved, count -> {
+            if (count > 0) {
+                compactDatabase();
             }
-        });
+            return count;
+        }, this::executeWrite);
     }
 
-    public void insert(Reminder reminder, OnReminderInsertedListener listener) {
-        executorService.execute(() -> {
-            try {
-                long id = reminderDao.insertReminder(reminder);
-                if (listener != null) {
-                    listener.onInserted(id);
+    private ListenableFuture<Integer> archiveBatches(long cutoff, int movedSoFar) {
+        ListenableFuture<Integer> batch = Futures.submit(
+                () -> queryMetrics.time("archiveBatch", () -> archiveBatch(cutoff)), this::executeWrite);
+        return Futures.transformAsync(batch, moved -> moved < ARCHIVE_BATCH_SIZE
+                ? Futures.immediateFuture(movedSoFar + moved)
+                : archiveBatches(cutoff, movedSoFar + moved), MoreExecutors.directExecutor());
+    }
+
+    private int archiveBatch(long cutoff) {
+        ArchiveDao archiveDao = database.archiveDao();
+        List<Integer> ids;
+        try {
+            ids = database.runInTransaction(() -> {
+                List<Integer> batch = archiveDao.getArchiveCandidateIds(cutoff, ARCHIVE_BATCH_SIZE);
+                if (!batch.isEmpty()) {
+                    archiveDao.copyToArchive(batch, System.currentTimeMillis());
+                    archiveDao.deleteOccurrences(batch);
+                    archiveDao.deleteReminders(batch);
+                    // Archived rows leave the backed-up set, like deletes
+                    List<ChangeLogEntry> changes = new ArrayList<>(batch.size());
+                    long now = System.currentTimeMillis();
+                    for (int id : batch) {
+                        changes.add(new ChangeLogEntry(id, ChangeLogEntry.OP_DELETE, now));
+                    }
+                    database.changeLogDao().insertEntries(changes);
+                    cache.noteSelfCommit();
                 }
-                if (listener != null) {
-                    listener.onInserted(id);
+                return batch;
+            });
+        } catch (RuntimeException e) {
+            cache.onWriteFailed();
+            throw e;
+        }
+        for (int id : ids) {
+            cache.invalidate(id);
+        }
+        return ids.size();
+    }
+
+    /**
+     * Returns free pages to the file system. Converting an existing database to
+     * incremental auto-vacuum needs one full VACUUM; after that only the pages the
+     * archive freed are released. Best effort: a busy database just retries next run.
+     */
+    private void compactDatabase() {
+        androidx.sqlite.db.SupportSQLiteDatabase db = database.getOpenHelper().getWritableDatabase();
+        try {
+            if (queryLong(db, "PRAGMA auto_vacuum") != 2) { // 2 = INCREMENTAL
+                db.execSQL("PRAGMA auto_vacuum = INCREMENTAL");
+                db.execSQL("VACUUM");
+            }
+            // Each step frees one page, so the cursor has to be walked to the end
+            try (android.database.Cursor cursor = db.query("PRAGMA incremental_vacuum")) {
+                while (cursor.moveToNext()) {
+                    // Nothing to read
                 }
-            } catch (Exception e) {
-                android.util.Log.e("ReminderRepository", "Error inserting reminder with listener", e);
             }
-        });
+        } catch (RuntimeException e) {
+            android.util.Log.w("ReminderRepository", "Compaction skipped", e);
+        }
     }
 
-    public void update(Reminder reminder) {
-        executorService.execute(() -> {
-            try {
-                reminderDao.updateReminder(reminder);
-                reminderDao.updateReminder(reminder);
-            } catch (Exception e) {
-                android.util.Log.e("ReminderRepository", "Error updating reminder", e);
-            }
-        });
+    private static long queryLong(androidx.sqlite.db.SupportSQLiteDatabase db, String sql) {
+        try (android.database.Cursor cursor = db.query(sql)) {
+            return cursor.moveToFirst() ? cursor.getLong(0) : 0;
+        }
+    }
+
+    /** Highest change_log sequence ever assigned, or 0; survives trimming of the log itself. */
+    public long getLastChangeSeq() {
+        try (android.database.Cursor cursor = database.query(
+                "SELECT seq FROM sqlite_sequence WHERE name = 'change_log'", null)) {
+            return cursor.moveToFirst() ? cursor.getLong(0) : 0;
+        }
+    }
+
+    /**
+     * Drops change_log entries up to {@code throughSeq} (already in an uploaded backup)
+     * and any older than {@code olderThan}, found as a seq prefix since changedAt is not indexed.
+     */
+    public ListenableFuture<Integer> trimChangeLog(long throughSeq, long olderThan) {
+        return Futures.submit(() -> {
+            ChangeLogDao changeLogDao = database.changeLogDao();
+            return changeLogDao.trimThrough(throughSeq) + changeLogDao.trimOlderThan(olderThan);
+        }, this::executeWrite);
+    }
+
+    /** Tombstones rows a restored backup removed; unlike {@link #delete} it leaves the undo buffer alone. */
+    ListenableFuture<List<Reminder>> applyRemoteDeletes(List<Integer> ids) {
+        List<Reminder> stubs = new ArrayList<>(ids.size());
+        for (int id : ids) {
+            Reminder stub = new Reminder(); // Tombstones only use the id
+            stub.setId(id);
+            stubs.add(stub);
+        }
+        return writeBatcher.enqueueAll(ReminderWriteBatcher.TOMBSTONE, stubs);
     }
 
-    public void delete(Reminder reminder) {
-        executorService.execute(() -> {
-            try {
-                reminderDao.deleteReminder(reminder);
-                reminderDao.deleteReminder(reminder);
-            } catch (Exception e) {
-                android.util.Log.e("ReminderRepository", "Error deleting reminder", e);
+    /**
+     * Recomputes every stored localEpochDay, e.g. after the device time zone changed.
+     * Only rows whose day moved are written, in short transactions of
+     * {@link EpochDays#RECOMPUTE_CHUNK} rows rather than one pass-long one.
+     */
+    public ListenableFuture<Void> recomputeLocalEpochDays() {
+        // Runs on the writer thread; writes still queued will derive their day in the new zone
+        return Futures.submit(() -> {
+            androidx.sqlite.db.SupportSQLiteDatabase db = database.getOpenHelper().getWritableDatabase();
+            int changed = EpochDays.recomputeAll(db, database::runInTransaction);
+            EpochDays.recomputeOccurrences(db, database::runInTransaction);
+            if (changed > 0) {
+                cache.clear(); // Raw SQL, bypassing the per-id invalidation
             }
-        });
+            return null;
+        }, this::executeWrite);
     }
 
-    public void delete(List<Reminder> reminders) {
-        executorService.execute(() -> {
-            try {
-                reminderDao.deleteReminders(reminders);
-                reminderDao.deleteReminders(reminders);
-            } catch (Exception e) {
-                android.util.Log.e("ReminderRepository", "Error deleting reminders batch", e);
+    /**
+     * Rolls the occurrence horizon forward at startup and backfills reminders that
+     * have no occurrences yet. Only series that have none, or whose last stored fire
+     * time is more than {@link OccurrenceExpander#TOP_UP_SLACK_MS} short of the
+     * horizon, are picked by one SQL query and re-expanded. Everything else was synced
+     * by its own writes, so a cold start (e.g. for an alarm) does not hold the writer
+     * for a pass over every reminder.
+     */
+    public ListenableFuture<Void> topUpOccurrences() {
+        return Futures.submit(() -> database.runInTransaction(() -> {
+            OccurrenceExpander expander = new OccurrenceExpander(database.occurrenceDao());
+            long now = System.currentTimeMillis();
+            database.occurrenceDao().deleteOrphans();
+            long before = now + OccurrenceExpander.HORIZON_MS - OccurrenceExpander.TOP_UP_SLACK_MS;
+            for (Reminder reminder : queryMetrics.time("getRemindersNeedingTopUp",
+                    () -> reminderDao.getRemindersNeedingTopUp(before, OccurrenceExpander.MAX_PER_REMINDER))) {
+                expander.sync(reminder.getId(), reminder, now);
             }
-        });
+        }), this::executeWrite);
     }
 
-    // Expose executor for Receiver use
+    /** Commits queued writes now; completes once everything enqueued so far is on disk. */
+    public ListenableFuture<Void> flush() {
+        return writeBatcher.flush();
+    }
+
+    /** Runs {@code runnable} on the read pool; it never waits behind queued writes. */
     public void execute(Runnable runnable) {
-        executorService.execute(runnable);
+        executeRead(runnable);
+    }
+
+    /**
+     * Runs {@code runnable} on the read pool once every queued or in-flight write to
+     * {@code reminderId} has committed. Writes to other reminders are not waited for.
+     */
+    public void executeAfterPendingWrites(int reminderId, Runnable runnable) {
+        writeBatcher.flushFor(reminderId).addListener(runnable, this::executeRead);
+    }
+
+    /** Runs {@code runnable} on the read pool after all queued writes have committed. */
+    public void executeAfterPendingWrites(Runnable runnable) {
+        writeBatcher.flush().addListener(runnable, this::executeRead);
+    }
+
+    private void executeRead(Runnable runnable) {
+        readExecutor.execute(readMetrics.wrap(runnable));
+    }
+
+    private void executeWrite(Runnable runnable) {
+        executorService.execute(writerMetrics.wrap(runnable));
     }
 
     public interface OnReminderInsertedListener {
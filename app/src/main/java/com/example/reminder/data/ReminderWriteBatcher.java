@@ -0,0 +1,400 @@
+package com.example.reminder.data;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drains queued reminder mutations into one Room transaction per batch.
+ * A batch stays open for {@link #COALESCE_WINDOW_MS} so that everything
+ * enqueued meanwhile joins it, and repeated writes to the same reminder id
+ * inside the window collapse to the last one (last write wins).
+ *
+ * Every applied mutation also appends to change_log inside the same
+ * transaction, which is what incremental backups ship.
+ *
+ * Soft deletes and restores only touch the deletedAt column. They are tracked
+ * apart from full-row writes, and a restore that follows a pending tombstone
+ * inside the window (an immediate undo) cancels it without any write. Full-row
+ * updates never change deletedAt: updates to soft-deleted rows are dropped.
+ *
+ * Reminders are copied at enqueue, so the writer thread only ever stamps its own
+ * copies (localEpochDay, updatedAt, deletedAt, new ids) and never the caller's
+ * objects. Each enqueue's future yields the values as written once the batch has
+ * committed; coalesced writes to one id all yield what was finally written.
+ */
+class ReminderWriteBatcher {
+
+    static final long COALESCE_WINDOW_MS = 200;
+
+    static final int INSERT = 0;
+    static final int UPDATE = 1;
+    static final int DELETE = 2;
+    static final int TOMBSTONE = 3;
+    static final int RESTORE = 4;
+    private static final int NOOP = 5; // A tombstone undone before it was written
+
+    // Keeps IN (...) lists well below SQLite's bound-variable limit
+    private static final int MAX_IDS_PER_STATEMENT = 500;
+
+    private static final class Mutation {
+        int type;
+        Reminder reminder;
+        ReminderRepository.OnReminderInsertedListener listener;
+        long insertedId;
+
+        Mutation(int type, Reminder reminder, ReminderRepository.OnReminderInsertedListener listener) {
+            this.type = type;
+            this.reminder = reminder;
+            this.listener = listener;
+        }
+    }
+
+    private final AppDatabase database;
+    private final ReminderDao reminderDao;
+    private final OccurrenceExpander occurrenceExpander;
+    private final ReminderCache cache;
+    private final ScheduledExecutorService writer;
+    private final ExecutorMetrics writerMetrics;
+    private final QueryMetrics queryMetrics;
+
+    private final Object lock = new Object();
+    private List<Mutation> pending = new ArrayList<>();
+    private android.util.SparseArray<Mutation> pendingById = new android.util.SparseArray<>();
+    private android.util.SparseArray<Mutation> pendingFlagById = new android.util.SparseArray<>();
+    private SettableFuture<Void> pendingBatch; // Completes when the batch being filled commits
+    // The batch the writer is applying right now, so readers of one id can wait for just that
+    private android.util.SparseArray<Mutation> writingById = new android.util.SparseArray<>();
+    private android.util.SparseArray<Mutation> writingFlagById = new android.util.SparseArray<>();
+    private SettableFuture<Void> writingBatch;
+
+    ReminderWriteBatcher(AppDatabase database, ReminderCache cache, ScheduledExecutorService writer,
+            ExecutorMetrics writerMetrics, QueryMetrics queryMetrics) {
+        this.database = database;
+        this.queryMetrics = queryMetrics;
+        this.cache = cache;
+        this.writerMetrics = writerMetrics;
+        this.reminderDao = database.reminderDao();
+        this.occurrenceExpander = new OccurrenceExpander(database.occurrenceDao());
+        this.writer = writer;
+    }
+
+    ListenableFuture<Reminder> enqueue(int type, Reminder reminder,
+            ReminderRepository.OnReminderInsertedListener listener) {
+        synchronized (lock) {
+            Mutation kept = addLocked(new Mutation(type, new Reminder(reminder), listener));
+            return Futures.transform(scheduleLocked(), ignored -> new Reminder(kept.reminder),
+                    MoreExecutors.directExecutor());
+        }
+    }
+
+    ListenableFuture<List<Reminder>> enqueueAll(int type, List<Reminder> reminders) {
+        synchronized (lock) {
+            List<Mutation> kept = new ArrayList<>(reminders.size());
+            for (Reminder reminder : reminders) {
+                kept.add(addLocked(new Mutation(type, new Reminder(reminder), null)));
+            }
+            return Futures.transform(scheduleLocked(), ignored -> written(kept), MoreExecutors.directExecutor());
+        }
+    }
+
+    // Read only after the batch future completed, so the writer's stamps are visible
+    private static List<Reminder> written(List<Mutation> mutations) {
+        List<Reminder> reminders = new ArrayList<>(mutations.size());
+        for (Mutation mutation : mutations) {
+            reminders.add(new Reminder(mutation.reminder));
+        }
+        return reminders;
+    }
+
+    /**
+     * Commits whatever is queued right now instead of waiting out the window.
+     * The future completes once every write enqueued before this call has been
+     * applied. Never block on it from the writer thread itself.
+     */
+    ListenableFuture<Void> flush() {
+        synchronized (lock) {
+            if (pendingBatch != null) {
+                writer.execute(writerMetrics.wrap(this::drain)); // The delayed drain later finds nothing to do
+                return pendingBatch;
+            }
+        }
+        // Nothing queued: complete once any batch already running on the writer has finished
+        SettableFuture<Void> barrier = SettableFuture.create();
+        writer.execute(writerMetrics.wrap(() -> barrier.set(null)));
+        return barrier;
+    }
+
+    /**
+     * Like {@link #flush()}, but only waits when a write to {@code id} is queued or
+     * being applied. Reads of other reminders never queue behind unrelated writes.
+     */
+    ListenableFuture<Void> flushFor(int id) {
+        synchronized (lock) {
+            if (pendingById.get(id) != null || pendingFlagById.get(id) != null) {
+                writer.execute(writerMetrics.wrap(this::drain));
+                return pendingBatch;
+            }
+            if (writingById.get(id) != null || writingFlagById.get(id) != null) {
+                return writingBatch;
+            }
+        }
+        return Futures.immediateVoidFuture();
+    }
+
+    // Returns the mutation that now carries the incoming write, which is an earlier one when coalesced
+    private Mutation addLocked(Mutation incoming) {
+        int id = incoming.reminder.getId();
+        if (incoming.type == TOMBSTONE || incoming.type == RESTORE) {
+            cache.invalidate(id);
+            Mutation existing = pendingFlagById.get(id);
+            if (existing != null) {
+                existing.type = existing.type == TOMBSTONE && incoming.type == RESTORE ? NOOP : incoming.type;
+                existing.reminder = incoming.reminder;
+                return existing;
+            }
+            pendingFlagById.put(id, incoming);
+            pending.add(incoming);
+            return incoming;
+        }
+        if (id != 0) { // New rows (id 0) have no identity to coalesce on
+            cache.invalidate(id);
+            Mutation existing = pendingById.get(id);
+            if (existing != null) {
+                merge(existing, incoming);
+                return existing;
+            }
+            pendingById.put(id, incoming);
+        }
+        pending.add(incoming);
+        return incoming;
+    }
+
+    // Keeps the slot of the first write and the state of the last one, mirroring what
+    // running both statements would leave behind.
+    private static void merge(Mutation existing, Mutation incoming) {
+        if (existing.type == DELETE && incoming.type == UPDATE) {
+            return; // Updating a deleted row is a no-op
+        }
+        if (!(existing.type == INSERT && incoming.type == UPDATE)) {
+            existing.type = incoming.type; // An update after an insert is still an insert (upsert)
+        }
+        existing.reminder = incoming.reminder;
+        if (incoming.listener != null) {
+            existing.listener = incoming.listener;
+        }
+    }
+
+    private ListenableFuture<Void> scheduleLocked() {
+        if (pendingBatch == null) {
+            pendingBatch = SettableFuture.create();
+            writer.schedule(writerMetrics.wrap(this::drain, COALESCE_WINDOW_MS), COALESCE_WINDOW_MS,
+                    TimeUnit.MILLISECONDS);
+        }
+        return pendingBatch;
+    }
+
+    private void drain() {
+        List<Mutation> batch;
+        SettableFuture<Void> future;
+        synchronized (lock) {
+            batch = pending;
+            future = pendingBatch;
+            if (future != null) {
+                writingById = pendingById;
+                writingFlagById = pendingFlagById;
+                writingBatch = future;
+            }
+            pending = new ArrayList<>();
+            pendingById = new android.util.SparseArray<>();
+            pendingFlagById = new android.util.SparseArray<>();
+            pendingBatch = null;
+        }
+        if (future == null) {
+            return;
+        }
+        try {
+            write(batch, future);
+        } finally {
+            synchronized (lock) {
+                writingById = new android.util.SparseArray<>();
+                writingFlagById = new android.util.SparseArray<>();
+                writingBatch = null;
+            }
+        }
+    }
+
+    private void write(List<Mutation> batch, SettableFuture<Void> future) {
+        try {
+            database.runInTransaction(() -> {
+                apply(batch);
+                // Flagged before commit: the tracker may report the commit before we get control back
+                cache.noteSelfCommit();
+            });
+        } catch (Exception e) {
+            android.util.Log.e("ReminderWriteBatcher", "Error writing batch of " + batch.size(), e);
+            cache.onWriteFailed();
+            future.setException(e);
+            return;
+        }
+
+        // Again after commit, in case a read re-filled an id between enqueue and commit
+        for (Mutation mutation : batch) {
+            cache.invalidate(mutation.type == INSERT ? (int) mutation.insertedId : mutation.reminder.getId());
+        }
+        future.set(null);
+
+        // Listeners run after commit so they observe the written rows
+        for (Mutation mutation : batch) {
+            if (mutation.type == INSERT && mutation.listener != null) {
+                mutation.listener.onInserted(mutation.insertedId);
+            }
+        }
+    }
+
+    private void apply(List<Mutation> batch) {
+        long now = System.currentTimeMillis();
+        List<ChangeLogEntry> changes = new ArrayList<>(batch.size());
+        // Consecutive mutations of the same type go down as one bulk DAO call, preserving order
+        int start = 0;
+        while (start < batch.size()) {
+            int type = batch.get(start).type;
+            int end = start + 1;
+            while (end < batch.size() && batch.get(end).type == type) {
+                end++;
+            }
+
+            List<Mutation> run = batch.subList(start, end);
+            switch (type) {
+                case INSERT:
+                case UPDATE:
+                case DELETE:
+                    applyRows(type, run, now, changes);
+                    break;
+                case TOMBSTONE:
+                case RESTORE:
+                    applyDeletedAt(type, run, now, changes);
+                    break;
+                // NOOP: nothing to write
+            }
+            start = end;
+        }
+        if (!changes.isEmpty()) {
+            database.changeLogDao().insertEntries(changes);
+        }
+    }
+
+    private void applyRows(int type, List<Mutation> run, long now, List<ChangeLogEntry> changes) {
+        if (type == UPDATE) {
+            run = withoutDeleted(run);
+        }
+        List<Reminder> rows = new ArrayList<>(run.size());
+        for (Mutation mutation : run) {
+            if (type == UPDATE) {
+                mutation.reminder.setDeletedAt(0); // Live, checked above; a stale copy must not re-delete it
+            }
+            if (type != DELETE) {
+                mutation.reminder.setLocalEpochDay(EpochDays.of(mutation.reminder.getTimeMillis()));
+                mutation.reminder.setUpdatedAt(now);
+            }
+            rows.add(mutation.reminder);
+        }
+
+        switch (type) {
+            case INSERT:
+                List<Long> ids = queryMetrics.time("upsertReminders", () -> reminderDao.upsertReminders(rows));
+                for (int i = 0; i < run.size(); i++) {
+                    long id = ids.get(i);
+                    run.get(i).insertedId = id == -1 ? run.get(i).reminder.getId() : id; // -1: updated in place
+                    run.get(i).reminder.setId((int) run.get(i).insertedId);
+                }
+                break;
+            case UPDATE:
+                queryMetrics.time("updateReminders", () -> {
+                    reminderDao.updateReminders(rows);
+                    return rows;
+                });
+                break;
+            case DELETE:
+                queryMetrics.time("deleteReminders", () -> {
+                    reminderDao.deleteReminders(rows);
+                    return rows;
+                });
+                break;
+        }
+
+        // Keep the expanded occurrences in the same transaction as the rows they mirror
+        for (Mutation mutation : run) {
+            int id = type == INSERT ? (int) mutation.insertedId : mutation.reminder.getId();
+            changes.add(new ChangeLogEntry(id, type == DELETE ? ChangeLogEntry.OP_DELETE : ChangeLogEntry.OP_UPSERT,
+                    now));
+            if (type == DELETE) {
+                occurrenceExpander.remove(id);
+            } else {
+                occurrenceExpander.sync(id, mutation.reminder, now);
+            }
+        }
+    }
+
+    /**
+     * A full-row update writes every column, deletedAt included, from an object that
+     * may predate a soft delete (the row was deleted from the list while an editor or
+     * the alarm scheduler held a copy). Updates to rows that are soft-deleted by now,
+     * earlier in this transaction or before, are dropped: delete-then-update stays a delete.
+     */
+    private List<Mutation> withoutDeleted(List<Mutation> run) {
+        List<Integer> ids = new ArrayList<>(run.size());
+        for (Mutation mutation : run) {
+            ids.add(mutation.reminder.getId());
+        }
+        java.util.Set<Integer> deleted = new java.util.HashSet<>();
+        for (int i = 0; i < ids.size(); i += MAX_IDS_PER_STATEMENT) {
+            deleted.addAll(reminderDao.getDeletedIds(ids.subList(i, Math.min(ids.size(), i + MAX_IDS_PER_STATEMENT))));
+        }
+        if (deleted.isEmpty()) {
+            return run;
+        }
+        List<Mutation> live = new ArrayList<>(run.size() - deleted.size());
+        for (Mutation mutation : run) {
+            if (!deleted.contains(mutation.reminder.getId())) {
+                live.add(mutation);
+            }
+        }
+        return live;
+    }
+
+    private void applyDeletedAt(int type, List<Mutation> run, long now, List<ChangeLogEntry> changes) {
+        long deletedAt = type == TOMBSTONE ? now : 0;
+        List<Integer> ids = new ArrayList<>(run.size());
+        for (Mutation mutation : run) {
+            mutation.reminder.setDeletedAt(deletedAt); // So the future yields the state just written
+            mutation.reminder.setUpdatedAt(now);
+            ids.add(mutation.reminder.getId());
+        }
+        for (int i = 0; i < ids.size(); i += MAX_IDS_PER_STATEMENT) {
+            List<Integer> chunk = ids.subList(i, Math.min(ids.size(), i + MAX_IDS_PER_STATEMENT));
+            queryMetrics.time("setDeletedAt", () -> {
+                reminderDao.setDeletedAt(chunk, deletedAt, now);
+                return chunk;
+            });
+        }
+
+        for (int id : ids) {
+            changes.add(new ChangeLogEntry(id, type == TOMBSTONE ? ChangeLogEntry.OP_DELETE : ChangeLogEntry.OP_UPSERT,
+                    now));
+            if (type == TOMBSTONE) {
+                occurrenceExpander.remove(id);
+            } else {
+                Reminder restored = reminderDao.getReminderByIdSync(id);
+                if (restored != null) {
+                    occurrenceExpander.sync(id, restored, now);
+                }
+            }
+        }
+    }
+}
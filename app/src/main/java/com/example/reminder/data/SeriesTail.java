@@ -0,0 +1,28 @@
+package com.example.reminder.data;
+
+import androidx.room.Embedded;
+
+/**
+ * An active repeating reminder with the last fire time its stored occurrences
+ * reach, or null when none are stored yet. The calendar continues the series
+ * from there on the fly, past the expansion cap and horizon.
+ */
+public class SeriesTail {
+
+    @Embedded
+    private final Reminder reminder;
+    private final Long lastFire;
+
+    public SeriesTail(Reminder reminder, Long lastFire) {
+        this.reminder = reminder;
+        this.lastFire = lastFire;
+    }
+
+    public Reminder getReminder() {
+        return reminder;
+    }
+
+    public Long getLastFire() {
+        return lastFire;
+    }
+}
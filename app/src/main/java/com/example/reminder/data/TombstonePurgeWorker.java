@@ -0,0 +1,53 @@
+package com.example.reminder.data;
+
+import android.content.Context;
+import androidx.annotation.NonNull;
+import androidx.work.Constraints;
+import androidx.work.ExistingPeriodicWorkPolicy;
+import androidx.work.PeriodicWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+import com.example.reminder.di.AppEntryPoint;
+import dagger.hilt.android.EntryPointAccessors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically hard-deletes soft-deleted reminders in one statement, once they
+ * are well past the in-memory undo window, and trims change_log entries that
+ * are already backed up.
+ */
+public class TombstonePurgeWorker extends Worker {
+
+    private static final String WORK_NAME = "purge_tombstones";
+    static final long PURGE_AFTER_MS = TimeUnit.DAYS.toMillis(1);
+
+    public TombstonePurgeWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    public static void schedule(Context context) {
+        PeriodicWorkRequest request = new PeriodicWorkRequest.Builder(TombstonePurgeWorker.class, 1, TimeUnit.DAYS)
+                .setConstraints(new Constraints.Builder().setRequiresBatteryNotLow(true).build())
+                .build();
+        WorkManager.getInstance(context).enqueueUniquePeriodicWork(WORK_NAME, ExistingPeriodicWorkPolicy.KEEP,
+                request);
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        AppEntryPoint entryPoint = EntryPointAccessors.fromApplication(getApplicationContext(), AppEntryPoint.class);
+        ReminderRepository repository = entryPoint.reminderRepository();
+        try {
+            int purged = repository.purgeTombstones(System.currentTimeMillis() - PURGE_AFTER_MS).get();
+            int trimmed = entryPoint.backupRepository().trimChangeLog(getApplicationContext()).get();
+            android.util.Log.d("TombstonePurgeWorker", "Purged " + purged + " deleted reminders, trimmed "
+                    + trimmed + " change log entries");
+            return Result.success();
+        } catch (Exception e) {
+            android.util.Log.e("TombstonePurgeWorker", "Error purging deleted reminders", e);
+            return Result.retry();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.reminder.data;
+
+/**
+ * Column subset the home screen widget renders. Loaded instead of the full
+ * {@link Reminder} so the unbounded description never enters the cursor window.
+ */
+public class WidgetRow {
+
+    private final int id;
+    private final String title;
+    private final long timeMillis;
+    private final long localEpochDay;
+    private final boolean isCompleted;
+
+    public WidgetRow(int id, String title, long timeMillis, long localEpochDay, boolean isCompleted) {
+        this.id = id;
+        this.title = title;
+        this.timeMillis = timeMillis;
+        this.localEpochDay = localEpochDay;
+        this.isCompleted = isCompleted;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public long getTimeMillis() {
+        return timeMillis;
+    }
+
+    public long getLocalEpochDay() {
+        return localEpochDay;
+    }
+
+    public boolean isCompleted() {
+        return isCompleted;
+    }
+}
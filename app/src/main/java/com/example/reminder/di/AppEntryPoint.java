@@ -0,0 +1,29 @@
+package com.example.reminder.di;
+
+import com.example.reminder.data.AppDatabase;
+import com.example.reminder.data.BackupRepository;
+import com.example.reminder.data.QueryMetrics;
+import com.example.reminder.data.ReminderRepository;
+import com.example.reminder.receiver.AlarmScheduler;
+import dagger.hilt.EntryPoint;
+import dagger.hilt.InstallIn;
+import dagger.hilt.components.SingletonComponent;
+
+/**
+ * Access to the app singletons for classes Hilt cannot inject, such as the
+ * widget's RemoteViewsFactory. Use {@code EntryPointAccessors.fromApplication}.
+ */
+@EntryPoint
+@InstallIn(SingletonComponent.class)
+public interface AppEntryPoint {
+
+    AppDatabase appDatabase();
+
+    ReminderRepository reminderRepository();
+
+    QueryMetrics queryMetrics();
+
+    BackupRepository backupRepository();
+
+    AlarmScheduler alarmScheduler();
+}
@@ -4,6 +4,7 @@ import android.content.Context;
 import androidx.room.Room;
 import androidx.room.RoomDatabase;
 import com.example.reminder.data.AppDatabase;
+import com.example.reminder.data.QueryMetrics;
 import com.example.reminder.data.ReminderDao;
 import dagger.Module;
 import dagger.Provides;
@@ -18,10 +19,13 @@ public class AppModule {
 
     @Provides
     @Singleton
-    public AppDatabase provideDatabase(@ApplicationContext Context context) {
+    public AppDatabase provideDatabase(@ApplicationContext Context context, QueryMetrics queryMetrics) {
         return Room.databaseBuilder(context, AppDatabase.class, "reminder_database")
-                .fallbackToDestructiveMigration()
+                .addMigrations(AppDatabase.allMigrations())
+                .fallbackToDestructiveMigrationFrom(1) // Pre-release schema with no migration path
                 .setJournalMode(RoomDatabase.JournalMode.WRITE_AHEAD_LOGGING) // Enable WAL for concurrency
+                // Direct executor so the callback sees the thread that issued the statement
+                .setQueryCallback(queryMetrics, Runnable::run)
                 .build();
     }
 
@@ -0,0 +1,208 @@
+package com.example.reminder.receiver;
+
+import android.app.AlarmManager;
+import android.app.PendingIntent;
+import android.content.Context;
+import android.content.Intent;
+import android.content.SharedPreferences;
+import android.os.Build;
+import androidx.annotation.NonNull;
+import androidx.room.InvalidationTracker;
+import com.example.reminder.data.AppDatabase;
+import com.example.reminder.data.Reminder;
+import com.example.reminder.data.ReminderRepository;
+import com.example.reminder.utils.NotificationHelper;
+import com.example.reminder.utils.RecurrenceCalculator;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import dagger.hilt.android.qualifiers.ApplicationContext;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+/**
+ * Keeps exactly one exact alarm armed, for the earliest time an active reminder
+ * is due. When it fires, every reminder due by then is notified in one pass and
+ * the alarm is re-armed for the next one. Nothing fires ahead of its time.
+ *
+ * Reminders created or edited to a time already past are not notified, as with
+ * the old per-reminder alarms; repeating ones just move on to their next time.
+ * Only reminders that came due while no alarm could fire (app killed, device
+ * off) are caught up.
+ *
+ * A watermark records the latest due time already handled, so nothing fires
+ * twice and reminders missed while the alarm was late still fire. It is kept in
+ * memory at once and saved to prefs only after the advanced repeats commit, so a
+ * process killed in between fires those reminders again rather than losing them. Any
+ * write to the reminders table re-arms the alarm, whichever code path made it.
+ * Snoozes stay per reminder, on their own action.
+ */
+@Singleton
+public class AlarmScheduler {
+
+    public static final String ACTION_FIRE_DUE = "com.example.reminder.ACTION_FIRE_DUE";
+    public static final String ACTION_SNOOZE_FIRE = "com.example.reminder.ACTION_SNOOZE_FIRE";
+
+    // Default prefs: summarize repeats missed while the device was off in one notification, or skip them
+    public static final String KEY_COLLAPSE_MISSED = "collapse_missed";
+
+    private static final String PREFS = "alarm_scheduler";
+    private static final String KEY_WATERMARK = "watermark";
+
+    private final Context context;
+    private final ReminderRepository repository;
+    private final SharedPreferences prefs;
+    // Handled in this process but not yet saved; guarded by this
+    private long pendingWatermark;
+
+    @Inject
+    public AlarmScheduler(@ApplicationContext Context context, ReminderRepository repository,
+            AppDatabase database) {
+        this.context = context;
+        this.repository = repository;
+        this.prefs = context.getSharedPreferences(PREFS, Context.MODE_PRIVATE);
+        if (!prefs.contains(KEY_WATERMARK)) {
+            // First run: reminders already in the past were handled by the old per-reminder alarms
+            prefs.edit().putLong(KEY_WATERMARK, System.currentTimeMillis()).apply();
+        }
+
+        database.getInvalidationTracker().addObserver(new InvalidationTracker.Observer("reminders") {
+            @Override
+            public void onInvalidated(@NonNull Set<String> tables) {
+                reschedule();
+            }
+        });
+    }
+
+    /** Re-arms the alarm for the earliest unhandled due time, off the calling thread. */
+    public void reschedule() {
+        repository.execute(this::armNext);
+    }
+
+    /**
+     * Notifies every active reminder due by now that has not been handled yet,
+     * advances repeating ones and re-arms. {@code onDone} runs once the
+     * advanced times have committed.
+     */
+    void processDue(Runnable onDone) {
+        repository.executeAfterPendingWrites(() -> {
+            List<ListenableFuture<Reminder>> writes = new ArrayList<>();
+            long handled = 0;
+            try {
+                synchronized (this) {
+                    long now = System.currentTimeMillis();
+                    long watermark = getWatermark();
+                    boolean collapseMissed = androidx.preference.PreferenceManager.getDefaultSharedPreferences(context)
+                            .getBoolean(KEY_COLLAPSE_MISSED, true);
+                    List<Reminder> due = repository.getDueRemindersSync(watermark, now);
+                    int notified = 0;
+                    if (!due.isEmpty()) {
+                        NotificationHelper.createNotificationChannel(context);
+                    }
+                    for (Reminder reminder : due) {
+                        watermark = Math.max(watermark, reminder.getTimeMillis());
+
+                        // Repeating: skip straight to the first occurrence after now, however far behind
+                        RecurrenceCalculator.CatchUp catchUp = RecurrenceCalculator.catchUp(reminder,
+                                reminder.getTimeMillis(), now);
+                        // The occurrence that came due fires unless it was already past when written;
+                        // skipping only drops the missed count
+                        if (!isPastDated(reminder)) {
+                            NotificationHelper.showNotification(context, reminder,
+                                    collapseMissed ? catchUp.missed : 0);
+                            notified++;
+                        }
+                        if (catchUp.nextTime > now) {
+                            reminder.setTimeMillis(catchUp.nextTime);
+                            writes.add(repository.update(reminder)); // Also tops up its occurrences
+                        }
+                    }
+                    pendingWatermark = handled = watermark;
+                    android.util.Log.d("AlarmScheduler", "Notified " + notified + " of " + due.size()
+                            + " due reminders");
+                }
+            } catch (Exception e) {
+                android.util.Log.e("AlarmScheduler", "Error processing due reminders", e);
+            }
+            if (!writes.isEmpty()) {
+                repository.flush(); // Commit now rather than after the coalescing window
+            }
+            long handledThrough = handled;
+            Futures.whenAllComplete(writes).run(() -> {
+                saveWatermark(handledThrough);
+                armNext();
+                onDone.run();
+            }, MoreExecutors.directExecutor());
+        });
+    }
+
+    /**
+     * Whether the reminder's time was already past when it was last written (created,
+     * edited or restored that way), rather than coming due afterwards. Rows from before
+     * updatedAt existed have 0 and count as due.
+     */
+    static boolean isPastDated(Reminder reminder) {
+        return reminder.getUpdatedAt() >= reminder.getTimeMillis();
+    }
+
+    public void scheduleSnooze(int reminderId, long triggerTime) {
+        setExact(triggerTime, snoozeIntent(reminderId));
+    }
+
+    public void cancelSnooze(int reminderId) {
+        alarmManager().cancel(snoozeIntent(reminderId));
+    }
+
+    /** Latest due time already handled; active reminders at or before it never fire again. */
+    synchronized long getWatermark() {
+        return Math.max(pendingWatermark, prefs.getLong(KEY_WATERMARK, System.currentTimeMillis()));
+    }
+
+    private synchronized void saveWatermark(long watermark) {
+        if (watermark > prefs.getLong(KEY_WATERMARK, 0)) {
+            prefs.edit().putLong(KEY_WATERMARK, watermark).apply();
+        }
+    }
+
+    synchronized void armNext() {
+        long watermark = getWatermark();
+        Long next = repository.getNextDueTimeSync(watermark);
+        if (next == null) {
+            alarmManager().cancel(fireDueIntent());
+            return;
+        }
+        setExact(next, fireDueIntent()); // Replaces the previous alarm: same PendingIntent
+    }
+
+    private void setExact(long triggerTime, PendingIntent pendingIntent) {
+        AlarmManager alarmManager = alarmManager();
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.S && !alarmManager.canScheduleExactAlarms()) {
+            // Without the exact-alarm permission a late reminder still beats a missing one
+            alarmManager.setAndAllowWhileIdle(AlarmManager.RTC_WAKEUP, triggerTime, pendingIntent);
+            return;
+        }
+        alarmManager.setExactAndAllowWhileIdle(AlarmManager.RTC_WAKEUP, triggerTime, pendingIntent);
+    }
+
+    private PendingIntent fireDueIntent() {
+        Intent intent = new Intent(context, AlarmReceiver.class);
+        intent.setAction(ACTION_FIRE_DUE);
+        return PendingIntent.getBroadcast(context, 0, intent,
+                PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE);
+    }
+
+    private PendingIntent snoozeIntent(int reminderId) {
+        Intent intent = new Intent(context, AlarmReceiver.class);
+        intent.setAction(ACTION_SNOOZE_FIRE);
+        intent.putExtra(NotificationHelper.EXTRA_REMINDER_ID, reminderId);
+        return PendingIntent.getBroadcast(context, reminderId, intent,
+                PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE);
+    }
+
+    private AlarmManager alarmManager() {
+        return (AlarmManager) context.getSystemService(Context.ALARM_SERVICE);
+    }
+}
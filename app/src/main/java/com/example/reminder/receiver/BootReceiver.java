@@ -3,22 +3,19 @@ package com.example.reminder.receiver;
 import android.content.BroadcastReceiver;
 import android.content.Context;
 import android.content.Intent;
-import com.example.reminder.data.ReminderRepository;
-import dagger.hilt.android.AndroidEntryPoint;
-import javax.inject.Inject;
 
-@AndroidEntryPoint
+/**
+ * Alarms do not survive a reboot or an app update. The receiver only enqueues
+ * {@link RescheduleWorker}, so it returns well within its time budget no matter
+ * how many reminders there are.
+ */
 public class BootReceiver extends BroadcastReceiver {
 
-    @Inject
-    ReminderRepository repository;
-
     @Override
     public void onReceive(Context context, Intent intent) {
-        if (Intent.ACTION_BOOT_COMPLETED.equals(intent.getAction())) {
-            new Thread(() -> {
-                // TODO: Query active reminders and reschedule them
-            }).start();
+        String action = intent.getAction();
+        if (Intent.ACTION_BOOT_COMPLETED.equals(action) || Intent.ACTION_MY_PACKAGE_REPLACED.equals(action)) {
+            RescheduleWorker.enqueue(context);
         }
     }
 }
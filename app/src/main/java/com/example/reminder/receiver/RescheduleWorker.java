@@ -0,0 +1,112 @@
+package com.example.reminder.receiver;
+
+import android.app.Notification;
+import android.app.NotificationChannel;
+import android.app.NotificationManager;
+import android.content.Context;
+import androidx.annotation.NonNull;
+import androidx.core.app.NotificationCompat;
+import androidx.work.ExistingWorkPolicy;
+import androidx.work.ForegroundInfo;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.OutOfQuotaPolicy;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+import com.example.reminder.data.Reminder;
+import com.example.reminder.data.ReminderRepository;
+import com.example.reminder.di.AppEntryPoint;
+import com.example.reminder.utils.RecurrenceCalculator;
+import com.google.common.util.concurrent.ListenableFuture;
+import dagger.hilt.android.EntryPointAccessors;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Re-arms alarms after a reboot or an app update. Repeating reminders whose stored
+ * time is at or before the scheduler's watermark would never come due again, so
+ * they are moved to their next occurrence, read and written in id-keyed chunks
+ * of {@link #CHUNK_SIZE}. Then the single next-due alarm is armed. The run's
+ * duration and row count are recorded in {@link com.example.reminder.data.QueryMetrics}.
+ */
+public class RescheduleWorker extends Worker {
+
+    private static final String WORK_NAME = "reschedule_alarms";
+    static final int CHUNK_SIZE = 500;
+
+    private static final String CHANNEL_ID = "reminder_maintenance";
+    private static final int NOTIFICATION_ID = -1; // Reminder notifications use the (positive) reminder ids
+
+    public RescheduleWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    public static void enqueue(Context context) {
+        OneTimeWorkRequest request = new OneTimeWorkRequest.Builder(RescheduleWorker.class)
+                .setExpedited(OutOfQuotaPolicy.RUN_AS_NON_EXPEDITED_WORK_REQUEST)
+                .build();
+        WorkManager.getInstance(context).enqueueUniqueWork(WORK_NAME, ExistingWorkPolicy.KEEP, request);
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        AppEntryPoint entryPoint = EntryPointAccessors.fromApplication(getApplicationContext(), AppEntryPoint.class);
+        ReminderRepository repository = entryPoint.reminderRepository();
+        AlarmScheduler alarmScheduler = entryPoint.alarmScheduler();
+        long start = System.nanoTime();
+        int rows = 0;
+        try {
+            long now = System.currentTimeMillis();
+            long staleBefore = alarmScheduler.getWatermark();
+            int afterId = 0;
+            List<Reminder> chunk;
+            do {
+                chunk = repository.getStaleRepeatsChunkSync(afterId, staleBefore, CHUNK_SIZE);
+                List<Reminder> moved = new ArrayList<>(chunk.size());
+                for (Reminder reminder : chunk) {
+                    afterId = reminder.getId();
+                    long nextTime = RecurrenceCalculator.catchUp(reminder, reminder.getTimeMillis(), now).nextTime;
+                    if (nextTime > now) {
+                        reminder.setTimeMillis(nextTime);
+                        moved.add(reminder);
+                    }
+                }
+                if (!moved.isEmpty()) {
+                    ListenableFuture<List<Reminder>> committed = repository.updateAll(moved);
+                    repository.flush(); // Commit now rather than after the coalescing window
+                    committed.get(); // One transaction per chunk; read the next only once it is on disk
+                }
+                rows += chunk.size();
+            } while (chunk.size() == CHUNK_SIZE && !isStopped());
+
+            alarmScheduler.armNext();
+            long nanos = System.nanoTime() - start;
+            entryPoint.queryMetrics().record("rescheduleAlarms", nanos, rows);
+            android.util.Log.d("RescheduleWorker", "Rescheduled " + rows + " repeating reminders in "
+                    + nanos / 1_000_000 + "ms");
+            return Result.success();
+        } catch (Exception e) {
+            android.util.Log.e("RescheduleWorker", "Error rescheduling alarms", e);
+            return Result.retry();
+        }
+    }
+
+    // Shown only where expedited work runs as a foreground service (before Android 12)
+    @NonNull
+    @Override
+    public ForegroundInfo getForegroundInfo() {
+        Context context = getApplicationContext();
+        NotificationChannel channel = new NotificationChannel(CHANNEL_ID, "Maintenance",
+                NotificationManager.IMPORTANCE_LOW);
+        context.getSystemService(NotificationManager.class).createNotificationChannel(channel);
+
+        Notification notification = new NotificationCompat.Builder(context, CHANNEL_ID)
+                .setSmallIcon(android.R.drawable.ic_popup_reminder)
+                .setContentTitle("Restoring reminders")
+                .setPriority(NotificationCompat.PRIORITY_LOW)
+                .setOngoing(true)
+                .build();
+        return new ForegroundInfo(NOTIFICATION_ID, notification);
+    }
+}
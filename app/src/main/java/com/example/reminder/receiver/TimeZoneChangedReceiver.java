@@ -0,0 +1,32 @@
+package com.example.reminder.receiver;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import com.example.reminder.data.ReminderRepository;
+import com.google.common.util.concurrent.MoreExecutors;
+import dagger.hilt.android.AndroidEntryPoint;
+import javax.inject.Inject;
+
+/**
+ * Stored local days depend on the device zone, so recompute them in the
+ * background when it changes and then refresh the widget.
+ */
+@AndroidEntryPoint
+public class TimeZoneChangedReceiver extends BroadcastReceiver {
+
+    @Inject
+    ReminderRepository repository;
+
+    @Override
+    public void onReceive(Context context, Intent intent) {
+        if (!Intent.ACTION_TIMEZONE_CHANGED.equals(intent.getAction()))
+            return;
+
+        PendingResult pendingResult = goAsync();
+        repository.recomputeLocalEpochDays().addListener(() -> {
+            com.example.reminder.widget.StickyNoteWidgetProvider.sendRefreshBroadcast(context);
+            pendingResult.finish();
+        }, MoreExecutors.directExecutor());
+    }
+}
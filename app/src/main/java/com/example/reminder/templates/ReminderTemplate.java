@@ -1,5 +1,6 @@
 package com.example.reminder.templates;
 
+import com.example.reminder.data.DayMask;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -10,7 +11,7 @@ public class ReminderTemplate {
     private final String description;
     private final String repeatMode;
     private final long repeatInterval;
-    private final String repeatDays;
+    private final DayMask repeatDays;
     private final Integer windowStart;
     private final Integer windowEnd;
     private final List<TimeSlot> suggestedTimes;
@@ -54,7 +55,7 @@ public class ReminderTemplate {
         return repeatInterval;
     }
 
-    public String getRepeatDays() {
+    public DayMask getRepeatDays() {
         return repeatDays;
     }
 
@@ -98,7 +99,7 @@ public class ReminderTemplate {
         private String description;
         private String repeatMode = "DAILY";
         private long repeatInterval = 0;
-        private String repeatDays;
+        private DayMask repeatDays = DayMask.NONE;
         private Integer windowStart;
         private Integer windowEnd;
         private List<TimeSlot> suggestedTimes = new ArrayList<>();
@@ -134,7 +135,7 @@ public class ReminderTemplate {
             return this;
         }
 
-        public Builder repeatDays(String repeatDays) {
+        public Builder repeatDays(DayMask repeatDays) {
             this.repeatDays = repeatDays;
             return this;
         }
@@ -1,5 +1,6 @@
 package com.example.reminder.templates;
 
+import com.example.reminder.data.DayMask;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -29,7 +30,7 @@ public class TemplateManager {
                 .description("Remember to take your medication")
                 .repeatMode("CUSTOM")
                 .repeatInterval(6 * 60 * 60 * 1000L) // 6 hours
-                .repeatDays("1,2,3,4,5,6,7")
+                .repeatDays(DayMask.EVERY_DAY)
                 .windowStart(480) // 8:00 AM
                 .windowEnd(1320) // 10:00 PM
                 .addTime(8, 0, "Start")
@@ -43,7 +44,7 @@ public class TemplateManager {
                 .description("Stay hydrated! Drink a glass of water")
                 .repeatMode("CUSTOM")
                 .repeatInterval(2 * 60 * 60 * 1000L) // 2 hours
-                .repeatDays("1,2,3,4,5,6,7") // Every day
+                .repeatDays(DayMask.EVERY_DAY) // Every day
                 .windowStart(480) // 8:00 AM
                 .windowEnd(1320) // 10:00 PM
                 .addTime(8, 0, "Start")
@@ -100,7 +101,7 @@ public class TemplateManager {
                 .description("Maintain dental hygiene")
                 .repeatMode("CUSTOM")
                 .repeatInterval(14 * 60 * 60 * 1000L) // 14 hours
-                .repeatDays("1,2,3,4,5,6,7")
+                .repeatDays(DayMask.EVERY_DAY)
                 .windowStart(480) // 8:00 AM
                 .windowEnd(1320) // 10:00 PM
                 .addTime(8, 0, "Morning")
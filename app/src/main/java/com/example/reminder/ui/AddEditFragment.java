@@ -13,6 +13,7 @@ import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
 import androidx.lifecycle.ViewModelProvider;
 import androidx.navigation.Navigation;
+import com.example.reminder.data.DayMask;
 import com.example.reminder.data.Reminder;
 import com.example.reminder.databinding.FragmentAddEditBinding;
 import dagger.hilt.android.AndroidEntryPoint;
@@ -23,6 +24,9 @@ import java.util.Locale;
 @AndroidEntryPoint
 public class AddEditFragment extends Fragment {
 
+    // Only the id travels in the arguments; the row itself comes from the repository
+    public static final String ARG_REMINDER_ID = "reminder_id";
+
     private FragmentAddEditBinding binding;
     private AddEditViewModel viewModel;
     private Calendar calendar;
@@ -43,9 +47,8 @@ public class AddEditFragment extends Fragment {
         viewModel = new ViewModelProvider(this).get(AddEditViewModel.class);
         calendar = Calendar.getInstance();
 
-        if (getArguments() != null && getArguments().containsKey("reminder")) {
-            existingReminder = (Reminder) getArguments().getSerializable("reminder");
-            populateFields(existingReminder);
+        if (getArguments() != null && getArguments().containsKey(ARG_REMINDER_ID)) {
+            loadExistingReminder(getArguments().getInt(ARG_REMINDER_ID));
         }
 
         updateDateButton();
@@ -61,7 +64,7 @@ public class AddEditFragment extends Fragment {
     }
 
     // Advanced Repeat State
-    private String repeatDays = null; // "1,2,3,4,5,6,7"
+    private int repeatDayMask = 0; // DayMask bits, 0 = not chosen yet
     private int windowStartC = 480; // 8:00 AM
     private int windowEndC = 1200; // 8:00 PM
     private boolean isIntervalMode = false;
@@ -94,35 +97,16 @@ public class AddEditFragment extends Fragment {
 
         // Load Current State
         // Days
-        if (repeatDays == null || repeatDays.isEmpty()) {
+        // Chips run Mon..Sun (0=Mon(2)...6=Sun(1))
+        int[] calendarDays = {
+                java.util.Calendar.MONDAY, java.util.Calendar.TUESDAY, java.util.Calendar.WEDNESDAY,
+                java.util.Calendar.THURSDAY, java.util.Calendar.FRIDAY, java.util.Calendar.SATURDAY,
+                java.util.Calendar.SUNDAY
+        };
+        for (int i = 0; i < chipGroup.getChildCount(); i++) {
             // Default select all
-            for (int i = 0; i < chipGroup.getChildCount(); i++) {
-                ((com.google.android.material.chip.Chip) chipGroup.getChildAt(i)).setChecked(true);
-            }
-        } else {
-            String[] days = repeatDays.split(",");
-            for (String day : days) {
-                int dayId = Integer.parseInt(day);
-                int chipIndex = -1;
-                if (dayId == java.util.Calendar.MONDAY)
-                    chipIndex = 0;
-                else if (dayId == java.util.Calendar.TUESDAY)
-                    chipIndex = 1;
-                else if (dayId == java.util.Calendar.WEDNESDAY)
-                    chipIndex = 2;
-                else if (dayId == java.util.Calendar.THURSDAY)
-                    chipIndex = 3;
-                else if (dayId == java.util.Calendar.FRIDAY)
-                    chipIndex = 4;
-                else if (dayId == java.util.Calendar.SATURDAY)
-                    chipIndex = 5;
-                else if (dayId == java.util.Calendar.SUNDAY)
-                    chipIndex = 6;
-
-                if (chipIndex != -1) {
-                    ((com.google.android.material.chip.Chip) chipGroup.getChildAt(chipIndex)).setChecked(true);
-                }
-            }
+            boolean checked = repeatDayMask == 0 || DayMask.contains(repeatDayMask, calendarDays[i]);
+            ((com.google.android.material.chip.Chip) chipGroup.getChildAt(i)).setChecked(checked);
         }
 
         // Frequency
@@ -167,28 +151,16 @@ public class AddEditFragment extends Fragment {
 
         btnConfirm.setOnClickListener(v -> {
             // Save State
-            StringBuilder sb = new StringBuilder();
-            boolean first = true;
-            // Iterate chips (0=Mon(2)...6=Sun(1))
-            int[] calendarDays = {
-                    java.util.Calendar.MONDAY, java.util.Calendar.TUESDAY, java.util.Calendar.WEDNESDAY,
-                    java.util.Calendar.THURSDAY, java.util.Calendar.FRIDAY, java.util.Calendar.SATURDAY,
-                    java.util.Calendar.SUNDAY
-            };
-
-            int checkedCount = 0;
+            int mask = 0;
             for (int i = 0; i < 7; i++) {
                 com.google.android.material.chip.Chip chip = (com.google.android.material.chip.Chip) chipGroup
                         .getChildAt(i);
                 if (chip.isChecked()) {
-                    if (!first)
-                        sb.append(",");
-                    sb.append(calendarDays[i]);
-                    first = false;
-                    checkedCount++;
+                    mask |= DayMask.bit(calendarDays[i]);
                 }
             }
-            repeatDays = sb.toString();
+            int checkedCount = Integer.bitCount(mask);
+            repeatDayMask = mask;
 
             if (checkedCount == 0) {
                 Toast.makeText(requireContext(), "Please select at least one day", Toast.LENGTH_SHORT).show();
@@ -254,13 +226,13 @@ public class AddEditFragment extends Fragment {
     }
 
     private void updateRepeatText() {
-        if (repeatDays == null || repeatDays.isEmpty()) {
+        if (repeatDayMask == 0) {
             binding.tvRepeat.setText("Does not repeat");
             return;
         }
 
-        String[] days = repeatDays.split(",");
-        String dayText = (days.length == 7) ? "Every Day" : days.length + " Days/Week";
+        int dayCount = Integer.bitCount(repeatDayMask);
+        String dayText = (dayCount == 7) ? "Every Day" : dayCount + " Days/Week";
 
         if ("CUSTOM".equals(selectedRepeatMode)) {
             long min = customIntervalMillis / (60 * 1000);
@@ -273,6 +245,33 @@ public class AddEditFragment extends Fragment {
         }
     }
 
+    private void loadExistingReminder(int id) {
+        // Saving before the row arrives would insert a duplicate
+        binding.btnSave.setEnabled(false);
+        com.google.common.util.concurrent.Futures.addCallback(viewModel.loadReminder(id),
+                new com.google.common.util.concurrent.FutureCallback<Reminder>() {
+                    @Override
+                    public void onSuccess(Reminder reminder) {
+                        if (binding == null)
+                            return;
+                        binding.btnSave.setEnabled(true);
+                        if (reminder == null)
+                            return; // Deleted meanwhile; treat as a new reminder
+                        existingReminder = reminder;
+                        populateFields(reminder);
+                        updateDateButton();
+                        updateTimeButton();
+                    }
+
+                    @Override
+                    public void onFailure(@NonNull Throwable t) {
+                        android.util.Log.e("AddEditFragment", "Error loading reminder " + id, t);
+                        if (binding != null)
+                            binding.btnSave.setEnabled(true);
+                    }
+                }, androidx.core.content.ContextCompat.getMainExecutor(requireContext()));
+    }
+
     private void populateFields(Reminder reminder) {
         binding.etTitle.setText(reminder.getTitle());
         binding.etDescription.setText(reminder.getDescription());
@@ -283,9 +282,9 @@ public class AddEditFragment extends Fragment {
             selectedRepeatMode = "NONE";
 
         // Load Advanced Options
-        repeatDays = reminder.getRepeatDays();
-        if ((repeatDays == null || repeatDays.isEmpty()) && "DAILY".equals(selectedRepeatMode)) {
-            repeatDays = "1,2,3,4,5,6,7";
+        repeatDayMask = reminder.getRepeatDayMask();
+        if (repeatDayMask == 0 && "DAILY".equals(selectedRepeatMode)) {
+            repeatDayMask = DayMask.ALL_BITS;
         }
 
         if (reminder.getWindowStart() != null)
@@ -372,14 +371,14 @@ public class AddEditFragment extends Fragment {
             reminder.setRepeatMode(selectedRepeatMode);
             reminder.setRepeatInterval(customIntervalMillis);
             // Advanced
-            reminder.setRepeatDays(repeatDays);
+            reminder.setRepeatDayMask(repeatDayMask);
             reminder.setWindowStart(windowStartC);
             reminder.setWindowEnd(windowEndC);
         } else {
             reminder = new Reminder(title, description, calendar.getTimeInMillis(),
                     binding.switchAllDay.isChecked(), selectedRepeatMode, customIntervalMillis, 0);
             // Advanced setters
-            reminder.setRepeatDays(repeatDays);
+            reminder.setRepeatDayMask(repeatDayMask);
             reminder.setWindowStart(windowStartC);
             reminder.setWindowEnd(windowEndC);
             // Default custom reminders to show on widget
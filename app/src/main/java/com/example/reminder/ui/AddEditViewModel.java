@@ -3,8 +3,9 @@ package com.example.reminder.ui;
 import androidx.lifecycle.ViewModel;
 import com.example.reminder.data.Reminder;
 import com.example.reminder.data.ReminderRepository;
-import com.example.reminder.receiver.AlarmReceiver;
+import com.example.reminder.receiver.AlarmScheduler;
 import android.content.Context;
+import com.google.common.util.concurrent.MoreExecutors;
 import dagger.hilt.android.lifecycle.HiltViewModel;
 import dagger.hilt.android.qualifiers.ApplicationContext;
 import javax.inject.Inject;
@@ -13,31 +14,41 @@ import javax.inject.Inject;
 public class AddEditViewModel extends ViewModel {
 
     private final ReminderRepository repository;
+    private final AlarmScheduler alarmScheduler;
     private final Context context;
 
     @Inject
-    public AddEditViewModel(ReminderRepository repository, @ApplicationContext Context context) {
+    public AddEditViewModel(ReminderRepository repository, AlarmScheduler alarmScheduler,
+            @ApplicationContext Context context) {
         this.repository = repository;
+        this.alarmScheduler = alarmScheduler;
         this.context = context;
     }
 
+    /** Served from the repository's reminder cache when warm. */
+    public com.google.common.util.concurrent.ListenableFuture<Reminder> loadReminder(int id) {
+        return repository.getReminderAsync(id);
+    }
+
+    // The alarm scheduler re-arms itself on every committed write to the reminders table
+
     public void saveReminder(Reminder reminder) {
         if (reminder.getId() == 0) {
             repository.insert(reminder, id -> {
                 reminder.setId((int) id);
-                AlarmReceiver.scheduleAlarm(context, reminder);
                 com.example.reminder.widget.StickyNoteWidgetProvider.sendRefreshBroadcast(context);
             });
         } else {
-            repository.update(reminder);
-            AlarmReceiver.scheduleAlarm(context, reminder);
-            com.example.reminder.widget.StickyNoteWidgetProvider.sendRefreshBroadcast(context);
+            repository.update(reminder).addListener(
+                    () -> com.example.reminder.widget.StickyNoteWidgetProvider.sendRefreshBroadcast(context),
+                    MoreExecutors.directExecutor());
         }
     }
 
     public void deleteReminder(Reminder reminder) {
-        AlarmReceiver.cancelAlarm(context, reminder);
-        repository.delete(reminder);
-        com.example.reminder.widget.StickyNoteWidgetProvider.sendRefreshBroadcast(context);
+        alarmScheduler.cancelSnooze(reminder.getId());
+        repository.delete(reminder).addListener(
+                () -> com.example.reminder.widget.StickyNoteWidgetProvider.sendRefreshBroadcast(context),
+                MoreExecutors.directExecutor());
     }
 }
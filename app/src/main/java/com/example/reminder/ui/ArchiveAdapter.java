@@ -0,0 +1,70 @@
+package com.example.reminder.ui;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+import androidx.annotation.NonNull;
+import androidx.paging.PagingDataAdapter;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.RecyclerView;
+import com.example.reminder.R;
+import com.example.reminder.data.ArchivedReminder;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+
+/** Read-only rows of the archive history screen. */
+public class ArchiveAdapter extends PagingDataAdapter<ArchivedReminder, ArchiveAdapter.ArchiveViewHolder> {
+
+    public ArchiveAdapter() {
+        super(DIFF_CALLBACK);
+    }
+
+    // Archived rows never change, so identity is enough
+    private static final DiffUtil.ItemCallback<ArchivedReminder> DIFF_CALLBACK =
+            new DiffUtil.ItemCallback<ArchivedReminder>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull ArchivedReminder oldItem, @NonNull ArchivedReminder newItem) {
+            return oldItem.getId() == newItem.getId();
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull ArchivedReminder oldItem, @NonNull ArchivedReminder newItem) {
+            return oldItem.getId() == newItem.getId();
+        }
+    };
+
+    @NonNull
+    @Override
+    public ArchiveViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext()).inflate(R.layout.item_archived_reminder, parent, false);
+        return new ArchiveViewHolder(view);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull ArchiveViewHolder holder, int position) {
+        ArchivedReminder reminder = getItem(position);
+        if (reminder == null)
+            return;
+        holder.bind(reminder);
+    }
+
+    static class ArchiveViewHolder extends RecyclerView.ViewHolder {
+        private final TextView tvTitle;
+        private final TextView tvTime;
+        private final SimpleDateFormat dateFormat = new SimpleDateFormat("EEE, d MMM yyyy - hh:mm a",
+                Locale.getDefault());
+
+        ArchiveViewHolder(@NonNull View itemView) {
+            super(itemView);
+            tvTitle = itemView.findViewById(R.id.tvArchivedTitle);
+            tvTime = itemView.findViewById(R.id.tvArchivedTime);
+        }
+
+        void bind(ArchivedReminder reminder) {
+            tvTitle.setText(reminder.getTitle());
+            tvTime.setText(dateFormat.format(new Date(reminder.getTimeMillis())));
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.reminder.ui;
+
+import android.os.Bundle;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.fragment.app.Fragment;
+import androidx.lifecycle.ViewModelProvider;
+import androidx.paging.LoadState;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+import com.example.reminder.R;
+import dagger.hilt.android.AndroidEntryPoint;
+import kotlin.Unit;
+
+/** History of archived reminders; pages are loaded from disk only as the list scrolls. */
+@AndroidEntryPoint
+public class ArchiveFragment extends Fragment {
+
+    @Nullable
+    @Override
+    public View onCreateView(@NonNull LayoutInflater inflater, @Nullable ViewGroup container,
+            @Nullable Bundle savedInstanceState) {
+        return inflater.inflate(R.layout.fragment_archive, container, false);
+    }
+
+    @Override
+    public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
+        super.onViewCreated(view, savedInstanceState);
+
+        ArchiveViewModel viewModel = new ViewModelProvider(this).get(ArchiveViewModel.class);
+        ArchiveAdapter adapter = new ArchiveAdapter();
+        RecyclerView recyclerView = view.findViewById(R.id.recyclerArchive);
+        recyclerView.setLayoutManager(new LinearLayoutManager(requireContext()));
+        recyclerView.setAdapter(adapter);
+
+        View emptyView = view.findViewById(R.id.tvArchiveEmpty);
+        adapter.addLoadStateListener(states -> {
+            boolean loaded = states.getRefresh() instanceof LoadState.NotLoading;
+            emptyView.setVisibility(loaded && adapter.getItemCount() == 0 ? View.VISIBLE : View.GONE);
+            return Unit.INSTANCE;
+        });
+
+        viewModel.getPagedArchive().observe(getViewLifecycleOwner(),
+                pagingData -> adapter.submitData(getViewLifecycleOwner().getLifecycle(), pagingData));
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.reminder.ui;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.ViewModel;
+import androidx.paging.PagingData;
+import androidx.paging.PagingLiveData;
+import com.example.reminder.data.ArchivedReminder;
+import com.example.reminder.data.ReminderRepository;
+import dagger.hilt.android.lifecycle.HiltViewModel;
+import javax.inject.Inject;
+
+@HiltViewModel
+public class ArchiveViewModel extends ViewModel {
+
+    private final LiveData<PagingData<ArchivedReminder>> pagedArchive;
+
+    @Inject
+    public ArchiveViewModel(ReminderRepository repository) {
+        this.pagedArchive = PagingLiveData.cachedIn(
+                PagingLiveData.getLiveData(repository.createArchivePager()), this);
+    }
+
+    public LiveData<PagingData<ArchivedReminder>> getPagedArchive() {
+        return pagedArchive;
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.reminder.ui;
+
+import android.net.Uri;
+import android.os.Bundle;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+import androidx.activity.result.ActivityResultLauncher;
+import androidx.activity.result.contract.ActivityResultContracts;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.fragment.app.Fragment;
+import com.example.reminder.R;
+import com.example.reminder.data.ExecutorMetrics;
+import com.example.reminder.data.ReminderRepository;
+import dagger.hilt.android.AndroidEntryPoint;
+import javax.inject.Inject;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Debug-only view of the in-memory query histograms, executor queues and
+ * cache counters. Reachable from Settings on debuggable builds.
+ */
+@AndroidEntryPoint
+public class DebugMetricsFragment extends Fragment {
+
+    @Inject
+    ReminderRepository repository;
+
+    private TextView tvMetrics;
+
+    private final ActivityResultLauncher<String> exportLauncher = registerForActivityResult(
+            new ActivityResultContracts.CreateDocument("application/json"), this::exportTo);
+
+    @Nullable
+    @Override
+    public View onCreateView(@NonNull LayoutInflater inflater, @Nullable ViewGroup container,
+            @Nullable Bundle savedInstanceState) {
+        return inflater.inflate(R.layout.fragment_debug_metrics, container, false);
+    }
+
+    @Override
+    public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
+        super.onViewCreated(view, savedInstanceState);
+        tvMetrics = view.findViewById(R.id.tvMetrics);
+
+        view.findViewById(R.id.btnMetricsRefresh).setOnClickListener(v -> render());
+        view.findViewById(R.id.btnMetricsReset).setOnClickListener(v -> {
+            repository.getQueryMetrics().reset();
+            render();
+        });
+        view.findViewById(R.id.btnMetricsExport).setOnClickListener(
+                v -> exportLauncher.launch("query-metrics-" + System.currentTimeMillis() + ".json"));
+        render();
+    }
+
+    private void render() {
+        tvMetrics.setText(repository.getWriterMetrics() + "\n" + repository.getReadMetrics() + "\n"
+                + "cache: hits=" + repository.getCacheHitCount() + " misses=" + repository.getCacheMissCount()
+                + "\n\n" + repository.getQueryMetrics());
+    }
+
+    private void exportTo(@Nullable Uri uri) {
+        if (uri == null)
+            return; // Picker cancelled
+        android.content.Context appContext = requireContext().getApplicationContext();
+        repository.execute(() -> {
+            try (java.io.OutputStream out = appContext.getContentResolver().openOutputStream(uri)) {
+                out.write(toJson().toString(2).getBytes(java.nio.charset.StandardCharsets.UTF_8));
+                showToast(appContext, "Metrics exported");
+            } catch (Exception e) {
+                android.util.Log.e("DebugMetricsFragment", "Error exporting metrics", e);
+                showToast(appContext, "Export failed: " + e.getMessage());
+            }
+        });
+    }
+
+    private JSONObject toJson() throws JSONException {
+        return new JSONObject()
+                .put("capturedAt", System.currentTimeMillis())
+                .put("queries", repository.getQueryMetrics().toJson())
+                .put("executors", new JSONObject()
+                        .put("writer", executorJson(repository.getWriterMetrics()))
+                        .put("reads", executorJson(repository.getReadMetrics())))
+                .put("cache", new JSONObject()
+                        .put("hits", repository.getCacheHitCount())
+                        .put("misses", repository.getCacheMissCount()));
+    }
+
+    private static JSONObject executorJson(ExecutorMetrics metrics) throws JSONException {
+        return new JSONObject()
+                .put("queueDepth", metrics.getQueueDepth())
+                .put("maxQueueDepth", metrics.getMaxQueueDepth())
+                .put("started", metrics.getStartedCount())
+                .put("avgWaitMs", metrics.getAverageWaitMillis())
+                .put("maxWaitMs", metrics.getMaxWaitMillis());
+    }
+
+    private static void showToast(android.content.Context context, String message) {
+        new android.os.Handler(android.os.Looper.getMainLooper()).post(
+                () -> android.widget.Toast.makeText(context, message, android.widget.Toast.LENGTH_SHORT).show());
+    }
+}
@@ -56,19 +56,67 @@ public class HomeFragment extends Fragment implements ReminderAdapter.OnItemClic
         setupRecyclerView();
         setupSpeedDialFab();
 
-        // Observe reminders
-        viewModel.getAllReminders().observe(getViewLifecycleOwner(), reminders -> {
-            adapter.submitList(reminders);
-            if (reminders.isEmpty()) {
-                binding.recyclerView.setVisibility(android.view.View.GONE);
-            } else {
-                binding.recyclerView.setVisibility(android.view.View.VISIBLE);
+        // Observe reminders (paged window, not the whole table), unless a search is showing
+        viewModel.getPagedReminders().observe(getViewLifecycleOwner(), pagingData -> {
+            if (viewModel.getSearchResults().getValue() == null) {
+                adapter.submitData(getViewLifecycleOwner().getLifecycle(), pagingData);
+            }
+        });
+        viewModel.getSearchResults().observe(getViewLifecycleOwner(), results -> {
+            if (results != null) {
+                adapter.submitData(getViewLifecycleOwner().getLifecycle(), androidx.paging.PagingData.from(results));
+            } else if (viewModel.getPagedReminders().getValue() != null) {
+                // Search cleared: go back to the paged list
+                adapter.submitData(getViewLifecycleOwner().getLifecycle(), viewModel.getPagedReminders().getValue());
             }
         });
+        setupSearch();
+        adapter.addLoadStateListener(loadStates -> {
+            if (binding != null && loadStates.getRefresh() instanceof androidx.paging.LoadState.NotLoading) {
+                binding.recyclerView.setVisibility(
+                        adapter.getItemCount() == 0 ? android.view.View.GONE : android.view.View.VISIBLE);
+            }
+            return kotlin.Unit.INSTANCE;
+        });
 
         checkFirstRun();
     }
 
+    private void setupSearch() {
+        android.view.MenuItem searchItem = binding.toolbar.getMenu().findItem(R.id.action_search);
+        androidx.appcompat.widget.SearchView searchView = (androidx.appcompat.widget.SearchView) searchItem
+                .getActionView();
+        if (searchView == null)
+            return;
+        searchView.setQueryHint("Search reminders");
+        searchView.setOnQueryTextListener(new androidx.appcompat.widget.SearchView.OnQueryTextListener() {
+            @Override
+            public boolean onQueryTextSubmit(String query) {
+                viewModel.setSearchQuery(query);
+                searchView.clearFocus();
+                return true;
+            }
+
+            @Override
+            public boolean onQueryTextChange(String newText) {
+                viewModel.setSearchQuery(newText); // Debounced in the ViewModel
+                return true;
+            }
+        });
+        searchItem.setOnActionExpandListener(new android.view.MenuItem.OnActionExpandListener() {
+            @Override
+            public boolean onMenuItemActionExpand(@NonNull android.view.MenuItem item) {
+                return true;
+            }
+
+            @Override
+            public boolean onMenuItemActionCollapse(@NonNull android.view.MenuItem item) {
+                viewModel.setSearchQuery("");
+                return true;
+            }
+        });
+    }
+
     private void checkFirstRun() {
         android.content.SharedPreferences prefs = requireContext().getSharedPreferences("com.example.reminder",
                 android.content.Context.MODE_PRIVATE);
@@ -232,7 +280,11 @@ public class HomeFragment extends Fragment implements ReminderAdapter.OnItemClic
                     public void onSwiped(@NonNull androidx.recyclerview.widget.RecyclerView.ViewHolder viewHolder,
                             int direction) {
                         int position = viewHolder.getAdapterPosition();
-                        Reminder reminder = adapter.getCurrentList().get(position);
+                        Reminder reminder = adapter.peek(position);
+                        if (reminder == null) {
+                            adapter.notifyItemChanged(position);
+                            return;
+                        }
 
                         if (direction == androidx.recyclerview.widget.ItemTouchHelper.LEFT) {
                             // Delete
@@ -240,14 +292,7 @@ public class HomeFragment extends Fragment implements ReminderAdapter.OnItemClic
                             com.google.android.material.snackbar.Snackbar
                                     .make(binding.getRoot(), "Reminder deleted",
                                             com.google.android.material.snackbar.Snackbar.LENGTH_LONG)
-                                    .setAction("Undo", v -> viewModel.insert(reminder))
-                                    // can restore or we
-                                    // accept simple delete
-                                    // for now.
-                                    // Actually HomeViewModel doesn't expose save, it exposes delete.
-                                    // Let's just use delete for now, implementing undo properly requires insert in
-                                    // VM.
-                                    // Ideally we should ask for confirmation or allow undo.
+                                    .setAction("Undo", v -> viewModel.undoDelete())
                                     .show();
 
                         } else if (direction == androidx.recyclerview.widget.ItemTouchHelper.RIGHT) {
@@ -277,7 +322,7 @@ public class HomeFragment extends Fragment implements ReminderAdapter.OnItemClic
         if (actionMode != null)
             return;
         Bundle bundle = new Bundle();
-        bundle.putSerializable("reminder", reminder);
+        bundle.putInt(AddEditFragment.ARG_REMINDER_ID, reminder.getId());
         Navigation.findNavController(requireView()).navigate(R.id.action_homeFragment_to_addEditFragment, bundle);
     }
 
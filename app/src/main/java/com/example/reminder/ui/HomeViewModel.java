@@ -1,18 +1,39 @@
 package com.example.reminder.ui;
 
+import android.os.Handler;
+import android.os.Looper;
 import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.ViewModel;
+import androidx.paging.PagingData;
+import androidx.paging.PagingLiveData;
 import com.example.reminder.data.Reminder;
 import com.example.reminder.data.ReminderRepository;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
 import dagger.hilt.android.lifecycle.HiltViewModel;
 import java.util.List;
+import java.util.concurrent.CancellationException;
 import javax.inject.Inject;
 
 @HiltViewModel
 public class HomeViewModel extends ViewModel {
 
     private final ReminderRepository repository;
-    private final LiveData<List<Reminder>> allReminders;
+    private final LiveData<PagingData<Reminder>> pagedReminders;
+
+    private static final long SEARCH_DEBOUNCE_MS = 250;
+    private static final int SEARCH_LIMIT = 200;
+
+    // null while no search is active; otherwise the results for the latest query
+    private final MutableLiveData<List<Reminder>> searchResults = new MutableLiveData<>();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private Runnable pendingSearch;
+    private ListenableFuture<List<Reminder>> inFlightSearch;
+    private String currentQuery = "";
+    private final Runnable stopObservingChanges;
 
     @Inject
     @dagger.hilt.android.qualifiers.ApplicationContext
@@ -21,31 +42,126 @@ public class HomeViewModel extends ViewModel {
     @Inject
     public HomeViewModel(ReminderRepository repository) {
         this.repository = repository;
-        this.allReminders = repository.getAllReminders();
+        this.pagedReminders = PagingLiveData.cachedIn(
+                PagingLiveData.getLiveData(repository.createReminderPager()), this);
+        // Search results are a one-shot list; edits, deletes and undos would otherwise leave them stale
+        this.stopObservingChanges = repository.observeReminderChanges(
+                () -> mainHandler.post(this::onRemindersChanged));
+    }
+
+    public LiveData<PagingData<Reminder>> getPagedReminders() {
+        return pagedReminders;
     }
 
-    public LiveData<List<Reminder>> getAllReminders() {
-        return allReminders;
+    public LiveData<List<Reminder>> getSearchResults() {
+        return searchResults;
+    }
+
+    /**
+     * Called on every keystroke. The query only runs once typing pauses, and any
+     * older query still queued or running is cancelled so stale results never land.
+     */
+    public void setSearchQuery(String query) {
+        String trimmed = query == null ? "" : query.trim();
+        if (trimmed.equals(currentQuery))
+            return;
+        currentQuery = trimmed;
+        cancelSearch();
+
+        if (trimmed.isEmpty()) {
+            searchResults.setValue(null);
+            return;
+        }
+        scheduleSearch(trimmed);
+    }
+
+    // Re-runs the active search after a write, debounced so a burst of commits runs it once
+    private void onRemindersChanged() {
+        if (currentQuery.isEmpty() || pendingSearch != null) {
+            return;
+        }
+        cancelSearch(); // A query still running may have read the rows from before the write
+        scheduleSearch(currentQuery);
+    }
+
+    private void scheduleSearch(String query) {
+        pendingSearch = () -> runSearch(query);
+        mainHandler.postDelayed(pendingSearch, SEARCH_DEBOUNCE_MS);
+    }
+
+    private void runSearch(String query) {
+        pendingSearch = null;
+        ListenableFuture<List<Reminder>> future = repository.search(query, SEARCH_LIMIT);
+        inFlightSearch = future;
+        Futures.addCallback(future, new FutureCallback<List<Reminder>>() {
+            @Override
+            public void onSuccess(List<Reminder> result) {
+                if (query.equals(currentQuery)) {
+                    searchResults.setValue(result);
+                }
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                if (!(t instanceof CancellationException)) {
+                    android.util.Log.e("HomeViewModel", "Search failed", t);
+                }
+            }
+        }, mainHandler::post);
+    }
+
+    private void cancelSearch() {
+        if (pendingSearch != null) {
+            mainHandler.removeCallbacks(pendingSearch);
+            pendingSearch = null;
+        }
+        if (inFlightSearch != null) {
+            inFlightSearch.cancel(true);
+            inFlightSearch = null;
+        }
+    }
+
+    @Override
+    protected void onCleared() {
+        stopObservingChanges.run();
+        cancelSearch();
+        mainHandler.removeCallbacksAndMessages(null); // Change notifications posted before the observer went
     }
 
     public void insert(Reminder reminder) {
-        repository.insert(reminder);
-        com.example.reminder.widget.StickyNoteWidgetProvider.sendRefreshBroadcast(context);
+        repository.insert(reminder).addListener(this::refreshWidget, MoreExecutors.directExecutor());
     }
 
     public void delete(Reminder reminder) {
-        repository.delete(reminder);
-        com.example.reminder.widget.StickyNoteWidgetProvider.sendRefreshBroadcast(context);
+        repository.delete(reminder).addListener(this::refreshWidget, MoreExecutors.directExecutor());
     }
 
     public void delete(List<Reminder> reminders) {
-        repository.delete(reminders);
-        com.example.reminder.widget.StickyNoteWidgetProvider.sendRefreshBroadcast(context);
+        repository.delete(reminders).addListener(this::refreshWidget, MoreExecutors.directExecutor());
+    }
+
+    /** Restores the last delete (a single-column update); the alarm scheduler picks the rows up again. */
+    public void undoDelete() {
+        Futures.addCallback(repository.undoDelete(), new FutureCallback<List<Reminder>>() {
+            @Override
+            public void onSuccess(List<Reminder> restored) {
+                refreshWidget();
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                android.util.Log.e("HomeViewModel", "Undo failed", t);
+            }
+        }, MoreExecutors.directExecutor());
     }
 
     public void updateCompletionStatus(Reminder reminder, boolean isCompleted) {
         reminder.setCompleted(isCompleted);
-        repository.update(reminder);
+        repository.update(reminder).addListener(this::refreshWidget, MoreExecutors.directExecutor());
+    }
+
+    // Writes are batched, so refresh the widget once the batch has committed
+    private void refreshWidget() {
         com.example.reminder.widget.StickyNoteWidgetProvider.sendRefreshBroadcast(context);
     }
 
@@ -53,4 +169,21 @@ public class HomeViewModel extends ViewModel {
     public void markComplete(Reminder reminder) {
         updateCompletionStatus(reminder, true);
     }
+
+    /** Completes the stored reminder; for rows that only project it, like calendar occurrences. */
+    public void markComplete(int reminderId) {
+        Futures.addCallback(repository.getReminderAsync(reminderId), new FutureCallback<Reminder>() {
+            @Override
+            public void onSuccess(Reminder reminder) {
+                if (reminder != null) {
+                    updateCompletionStatus(reminder, true);
+                }
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                android.util.Log.e("HomeViewModel", "Error loading reminder " + reminderId, t);
+            }
+        }, MoreExecutors.directExecutor());
+    }
 }
@@ -6,16 +6,18 @@ import android.view.ViewGroup;
 import android.widget.CheckBox;
 import android.widget.TextView;
 import androidx.annotation.NonNull;
+import androidx.paging.PagingDataAdapter;
 import androidx.recyclerview.widget.DiffUtil;
-import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 import com.example.reminder.R;
+import com.example.reminder.data.DayMask;
+import com.example.reminder.data.EpochDays;
 import com.example.reminder.data.Reminder;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.Locale;
 
-public class ReminderAdapter extends ListAdapter<Reminder, ReminderAdapter.ReminderViewHolder> {
+public class ReminderAdapter extends PagingDataAdapter<Reminder, ReminderAdapter.ReminderViewHolder> {
 
     private final OnItemClickListener listener;
     private boolean isSelectionMode = false;
@@ -71,6 +73,8 @@ public class ReminderAdapter extends ListAdapter<Reminder, ReminderAdapter.Remin
     @Override
     public void onBindViewHolder(@NonNull ReminderViewHolder holder, int position) {
         Reminder reminder = getItem(position);
+        if (reminder == null)
+            return; // Placeholders are disabled, but stay defensive
         holder.bind(reminder, selectedItems.contains(reminder));
     }
 
@@ -105,7 +109,10 @@ public class ReminderAdapter extends ListAdapter<Reminder, ReminderAdapter.Remin
             contentContainer.setOnClickListener(v -> {
                 int position = getAdapterPosition();
                 if (position != RecyclerView.NO_POSITION) {
-                    Reminder item = getItem(position);
+                    Reminder item = peek(position);
+                    if (item == null) {
+                        return;
+                    }
                     if (isSelectionMode) {
                         toggleSelection(item);
                     } else if (listener != null) {
@@ -117,8 +124,8 @@ public class ReminderAdapter extends ListAdapter<Reminder, ReminderAdapter.Remin
             contentContainer.setOnLongClickListener(v -> {
                 int position = getAdapterPosition();
                 if (position != RecyclerView.NO_POSITION) {
-                    Reminder item = getItem(position);
-                    if (!isSelectionMode) {
+                    Reminder item = peek(position);
+                    if (item != null && !isSelectionMode) {
                         isSelectionMode = true;
                         selectedItems.add(item);
                         notifyDataSetChanged();
@@ -131,15 +138,16 @@ public class ReminderAdapter extends ListAdapter<Reminder, ReminderAdapter.Remin
 
             btnDelete.setOnClickListener(v -> {
                 int position = getAdapterPosition();
-                if (position != RecyclerView.NO_POSITION && listener != null) {
-                    listener.onDeleteClick(getItem(position));
+                Reminder item = position != RecyclerView.NO_POSITION ? peek(position) : null;
+                if (item != null && listener != null) {
+                    listener.onDeleteClick(item);
                 }
             });
 
             cbComplete.setOnClickListener(v -> {
                 int position = getAdapterPosition();
-                if (position != RecyclerView.NO_POSITION && listener != null) {
-                    Reminder item = getItem(position);
+                Reminder item = position != RecyclerView.NO_POSITION ? peek(position) : null;
+                if (item != null && listener != null) {
                     boolean isChecked = cbComplete.isChecked();
                     // Instant UI Update
                     if (isChecked) {
@@ -188,13 +196,8 @@ public class ReminderAdapter extends ListAdapter<Reminder, ReminderAdapter.Remin
             cbComplete.setChecked(reminder.isCompleted());
 
             // Check if task is overdue (before today and not completed)
-            java.util.Calendar today = java.util.Calendar.getInstance();
-            today.set(java.util.Calendar.HOUR_OF_DAY, 0);
-            today.set(java.util.Calendar.MINUTE, 0);
-            today.set(java.util.Calendar.SECOND, 0);
-            today.set(java.util.Calendar.MILLISECOND, 0);
-
-            boolean isOverdue = reminder.getTimeMillis() < today.getTimeInMillis() && !reminder.isCompleted();
+            long todayEpochDay = EpochDays.today();
+            boolean isOverdue = reminder.getLocalEpochDay() < todayEpochDay && !reminder.isCompleted();
 
             // Styling Priority: Selected > Completed > Overdue > Normal
             if (isSelected) {
@@ -222,66 +225,43 @@ public class ReminderAdapter extends ListAdapter<Reminder, ReminderAdapter.Remin
 
             // Repeat Days Indicator
             TextView tvRepeatDays = itemView.findViewById(R.id.tvRepeatDays);
-            String daysStr = reminder.getRepeatDays();
             String mode = reminder.getRepeatMode();
 
             if (mode != null && !mode.equals("NONE")) {
                 tvRepeatDays.setVisibility(View.VISIBLE);
 
-                // Determine active days
-                java.util.Set<Integer> activeDays = new java.util.HashSet<>();
+                // Determine active days (DayMask bits)
+                int activeDays;
                 if ("DAILY".equals(mode)) {
-                    // All days
-                    for (int i = 1; i <= 7; i++)
-                        activeDays.add(i);
-                } else if (daysStr != null && !daysStr.isEmpty()) {
-                    for (String d : daysStr.split(",")) {
-                        try {
-                            activeDays.add(Integer.parseInt(d.trim()));
-                        } catch (NumberFormatException ignored) {
-                        }
-                    }
+                    activeDays = DayMask.ALL_BITS;
+                } else if (reminder.getRepeatDayMask() != 0) {
+                    activeDays = reminder.getRepeatDayMask();
                 } else if ("WEEKLY".equals(mode)) {
                     // Fallback to day of week of start time
                     java.util.Calendar c = java.util.Calendar.getInstance();
                     c.setTimeInMillis(reminder.getTimeMillis());
-                    activeDays.add(c.get(java.util.Calendar.DAY_OF_WEEK));
+                    activeDays = DayMask.bit(c.get(java.util.Calendar.DAY_OF_WEEK));
+                } else {
+                    activeDays = 0;
                 }
 
-                // Build "S M T W T F S"
-                // Calendar.SUNDAY = 1 -> S
-                // ...
-                // Calendar.SATURDAY = 7 -> S
-                // Map: 1->S, 2->M, 3->T, 4->W, 5->T, 6->F, 7->S (order in string)
-
-                // We want order: S M T W T F S (Sun to Sat) OR M T W T F S S?
-                // US convention starts Sunday. Let's use S M T W T F S.
+                // Build "S M T W T F S" (Sun to Sat); day d sits at char index (d - 1) * 2
                 String fullText = "S M T W T F S";
                 android.text.SpannableString spannable = new android.text.SpannableString(fullText);
 
-                // Indices in string "S M T W T F S"
-                // S(0) M(2) T(4) W(6) T(8) F(10) S(12)
-                int[] mapDayToCharIndex = new int[8]; // 1-based index
-                mapDayToCharIndex[java.util.Calendar.SUNDAY] = 0;
-                mapDayToCharIndex[java.util.Calendar.MONDAY] = 2;
-                mapDayToCharIndex[java.util.Calendar.TUESDAY] = 4;
-                mapDayToCharIndex[java.util.Calendar.WEDNESDAY] = 6;
-                mapDayToCharIndex[java.util.Calendar.THURSDAY] = 8;
-                mapDayToCharIndex[java.util.Calendar.FRIDAY] = 10;
-                mapDayToCharIndex[java.util.Calendar.SATURDAY] = 12;
-
                 int activeColor = itemView.getContext().getColor(R.color.brand_accent);
                 int inactiveColor = itemView.getContext().getColor(R.color.text_tertiary);
 
                 for (int day = java.util.Calendar.SUNDAY; day <= java.util.Calendar.SATURDAY; day++) {
-                    int idx = mapDayToCharIndex[day];
-                    int color = activeDays.contains(day) ? activeColor : inactiveColor;
+                    int idx = (day - 1) * 2;
+                    boolean active = DayMask.contains(activeDays, day);
+                    int color = active ? activeColor : inactiveColor;
 
                     spannable.setSpan(new android.text.style.ForegroundColorSpan(color),
                             idx, idx + 1, android.text.Spannable.SPAN_EXCLUSIVE_EXCLUSIVE);
 
                     // Bold for active
-                    if (activeDays.contains(day)) {
+                    if (active) {
                         spannable.setSpan(new android.text.style.StyleSpan(android.graphics.Typeface.BOLD),
                                 idx, idx + 1, android.text.Spannable.SPAN_EXCLUSIVE_EXCLUSIVE);
                     }
@@ -305,17 +285,9 @@ public class ReminderAdapter extends ListAdapter<Reminder, ReminderAdapter.Remin
             boolean showHeader = false;
             if (position == 0) {
                 showHeader = true; // First item always shows header
-            } else if (position > 0) {
-                Reminder previousStart = getItem(position - 1);
-                // Compare dates (Day/Month/Year)
-                java.util.Calendar cal1 = java.util.Calendar.getInstance();
-                cal1.setTimeInMillis(reminder.getTimeMillis());
-
-                java.util.Calendar cal2 = java.util.Calendar.getInstance();
-                cal2.setTimeInMillis(previousStart.getTimeMillis());
-
-                boolean sameDay = cal1.get(java.util.Calendar.YEAR) == cal2.get(java.util.Calendar.YEAR) &&
-                        cal1.get(java.util.Calendar.DAY_OF_YEAR) == cal2.get(java.util.Calendar.DAY_OF_YEAR);
+            } else if (position > 0 && peek(position - 1) != null) {
+                Reminder previousStart = peek(position - 1); // peek: no extra page-load hint
+                boolean sameDay = reminder.getLocalEpochDay() == previousStart.getLocalEpochDay();
 
                 if (!sameDay) {
                     showHeader = true;
@@ -325,37 +297,24 @@ public class ReminderAdapter extends ListAdapter<Reminder, ReminderAdapter.Remin
             if (showHeader) {
                 containerHeader.setVisibility(View.VISIBLE);
                 // Format: "Today", "Yesterday", or "Fri, Feb 14"
-                tvHeaderDate.setText(getDateTitle(reminder.getTimeMillis()));
+                tvHeaderDate.setText(getDateTitle(reminder, todayEpochDay));
             } else {
                 containerHeader.setVisibility(View.GONE);
             }
         }
 
-        private String getDateTitle(long timeMillis) {
-            java.util.Calendar target = java.util.Calendar.getInstance();
-            target.setTimeInMillis(timeMillis);
-
-            java.util.Calendar now = java.util.Calendar.getInstance();
-
-            if (target.get(java.util.Calendar.YEAR) == now.get(java.util.Calendar.YEAR) &&
-                    target.get(java.util.Calendar.DAY_OF_YEAR) == now.get(java.util.Calendar.DAY_OF_YEAR)) {
+        private String getDateTitle(Reminder reminder, long todayEpochDay) {
+            long dayOffset = reminder.getLocalEpochDay() - todayEpochDay;
+            if (dayOffset == 0) {
                 return "Today";
-            }
-
-            now.add(java.util.Calendar.DAY_OF_YEAR, 1);
-            if (target.get(java.util.Calendar.YEAR) == now.get(java.util.Calendar.YEAR) &&
-                    target.get(java.util.Calendar.DAY_OF_YEAR) == now.get(java.util.Calendar.DAY_OF_YEAR)) {
+            } else if (dayOffset == 1) {
                 return "Tomorrow";
-            }
-
-            now.add(java.util.Calendar.DAY_OF_YEAR, -2); // Go back to yesterday (today-1)
-            if (target.get(java.util.Calendar.YEAR) == now.get(java.util.Calendar.YEAR) &&
-                    target.get(java.util.Calendar.DAY_OF_YEAR) == now.get(java.util.Calendar.DAY_OF_YEAR)) {
+            } else if (dayOffset == -1) {
                 return "Yesterday";
             }
 
             SimpleDateFormat sdf = new SimpleDateFormat("EEEE, MMMM d", Locale.getDefault());
-            return sdf.format(new Date(timeMillis));
+            return sdf.format(new Date(reminder.getTimeMillis()));
         }
     }
 }
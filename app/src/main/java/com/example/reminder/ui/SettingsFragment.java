@@ -46,6 +46,9 @@ public class SettingsFragment extends Fragment {
                 }
             });
 
+    private final ActivityResultLauncher<String> exportLauncher = registerForActivityResult(
+            new ActivityResultContracts.CreateDocument("application/json"), this::exportTo);
+
     @Override
     public View onCreateView(@NonNull LayoutInflater inflater, @Nullable ViewGroup container,
             @Nullable Bundle savedInstanceState) {
@@ -63,6 +66,20 @@ public class SettingsFragment extends Fragment {
         setupSnoozeSelector();
         setupRingtonePicker();
         setupBackupUI();
+        setupArchiveAgeSelector();
+        setupMissedRepeatsSelector();
+
+        binding.containerArchive.setOnClickListener(v -> androidx.navigation.Navigation.findNavController(v)
+                .navigate(com.example.reminder.R.id.action_settingsFragment_to_archiveFragment));
+
+        binding.containerExport.setOnClickListener(
+                v -> exportLauncher.launch("reminders-" + java.time.LocalDate.now() + ".json"));
+
+        if ((requireContext().getApplicationInfo().flags & android.content.pm.ApplicationInfo.FLAG_DEBUGGABLE) != 0) {
+            binding.containerDebugMetrics.setVisibility(View.VISIBLE);
+            binding.containerDebugMetrics.setOnClickListener(v -> androidx.navigation.Navigation.findNavController(v)
+                    .navigate(com.example.reminder.R.id.action_settingsFragment_to_debugMetricsFragment));
+        }
 
         binding.containerHelp.setOnClickListener(v -> androidx.navigation.Navigation.findNavController(v)
                 .navigate(com.example.reminder.R.id.action_settingsFragment_to_helpFragment));
@@ -96,37 +113,26 @@ public class SettingsFragment extends Fragment {
             android.widget.Toast.makeText(requireContext(), "Starting Backup...", android.widget.Toast.LENGTH_SHORT)
                     .show();
 
-            // Generate JSON on BG thread (Repo handles it but exportRemindersToJson uses
-            // DAO which might need BG)
-            // Ideally Repo should handle threading completely. My Repo export
-            // implementation calls DAO sync, so needed background.
-            new Thread(() -> {
-                String json = backupRepository.exportRemindersToJson();
-                if (json != null) {
-                    backupRepository.uploadToDrive(requireContext(), account, json,
-                            new com.example.reminder.data.BackupRepository.BackupCallback() {
-                                @Override
-                                public void onSuccess() {
-                                    requireActivity()
-                                            .runOnUiThread(() -> android.widget.Toast.makeText(requireContext(),
-                                                    "Backup Successful! ✅", android.widget.Toast.LENGTH_LONG).show());
-                                }
+            // Uploads only what changed since the last backup (or a fresh base) on a background thread
+            android.content.Context appContext = requireContext().getApplicationContext();
+            backupRepository.backupToDrive(appContext, account,
+                    new com.example.reminder.data.BackupRepository.BackupCallback() {
+                        @Override
+                        public void onSuccess() {
+                            requireActivity()
+                                    .runOnUiThread(() -> android.widget.Toast.makeText(requireContext(),
+                                            "Backup Successful! ✅", android.widget.Toast.LENGTH_LONG).show());
+                        }
 
-                                @Override
-                                public void onError(Exception e) {
-                                    requireActivity().runOnUiThread(() -> android.widget.Toast
-                                            .makeText(requireContext(), "Backup Failed: " + e.getMessage(),
-                                                    android.widget.Toast.LENGTH_LONG)
-                                            .show());
-                                    e.printStackTrace();
-                                }
-                            });
-                } else {
-                    requireActivity().runOnUiThread(() -> android.widget.Toast
-                            .makeText(requireContext(), "Failed to export data", android.widget.Toast.LENGTH_SHORT)
-                            .show());
-                }
-            }).start();
+                        @Override
+                        public void onError(Exception e) {
+                            requireActivity().runOnUiThread(() -> android.widget.Toast
+                                    .makeText(requireContext(), "Backup Failed: " + e.getMessage(),
+                                            android.widget.Toast.LENGTH_LONG)
+                                    .show());
+                            e.printStackTrace();
+                        }
+                    });
         });
 
         binding.btnRestoreNow.setOnClickListener(v -> {
@@ -140,22 +146,66 @@ public class SettingsFragment extends Fragment {
 
             backupRepository.restoreFromDrive(requireContext(), account,
                     new com.example.reminder.data.BackupRepository.BackupCallback() {
+                        private volatile int restored; // Last count from onProgress, read by the final toast
+
                         @Override
                         public void onSuccess() {
-                            requireActivity().runOnUiThread(() -> android.widget.Toast.makeText(requireContext(),
-                                    "Restore Successful! 🔄", android.widget.Toast.LENGTH_LONG).show());
+                            requireActivity().runOnUiThread(() -> {
+                                android.widget.Toast.makeText(requireContext(), "Restore Successful! 🔄 "
+                                        + restored + " reminders", android.widget.Toast.LENGTH_LONG).show();
+                                if (binding != null) {
+                                    updateBackupUIState();
+                                }
+                            });
                         }
 
                         @Override
                         public void onError(Exception e) {
-                            requireActivity().runOnUiThread(() -> android.widget.Toast.makeText(requireContext(),
-                                    "Restore Failed: " + e.getMessage(), android.widget.Toast.LENGTH_LONG).show());
+                            requireActivity().runOnUiThread(() -> {
+                                android.widget.Toast.makeText(requireContext(), "Restore Failed: " + e.getMessage()
+                                        + " (" + restored + " reminders restored)", android.widget.Toast.LENGTH_LONG)
+                                        .show();
+                                if (binding != null) {
+                                    updateBackupUIState();
+                                }
+                            });
                             e.printStackTrace();
                         }
+
+                        @Override
+                        public void onProgress(int imported) {
+                            restored = imported;
+                            android.app.Activity activity = getActivity();
+                            if (activity == null)
+                                return; // Restore keeps going; there is just nothing to update
+                            activity.runOnUiThread(() -> {
+                                if (binding != null) {
+                                    binding.tvBackupStatus.setText("Restoring… " + imported + " reminders");
+                                }
+                            });
+                        }
                     });
         });
     }
 
+    private void exportTo(@Nullable Uri uri) {
+        if (uri == null)
+            return; // Picker cancelled
+        android.content.Context appContext = requireContext().getApplicationContext();
+        new Thread(() -> {
+            String message;
+            try {
+                message = "Exported " + backupRepository.exportRemindersToUri(appContext, uri) + " reminders";
+            } catch (Exception e) {
+                android.util.Log.e("SettingsFragment", "Error exporting reminders", e);
+                message = "Export failed: " + e.getMessage();
+            }
+            String toast = message;
+            new android.os.Handler(android.os.Looper.getMainLooper()).post(() -> android.widget.Toast
+                    .makeText(appContext, toast, android.widget.Toast.LENGTH_LONG).show());
+        }).start();
+    }
+
     private void updateBackupUIState() {
         boolean isSignedIn = googleSignInHelper.isSignedIn(requireContext());
         if (isSignedIn) {
@@ -257,6 +307,49 @@ public class SettingsFragment extends Fragment {
         });
     }
 
+    private void setupArchiveAgeSelector() {
+        String[] labels = { "After 7 Days", "After 30 Days", "After 90 Days", "Never" };
+        int[] values = { 7, 30, 90, 0 };
+
+        binding.tvArchiveAge.setText(labels[archiveAgeIndex(values)]);
+
+        binding.containerArchiveAge.setOnClickListener(v -> new android.app.AlertDialog.Builder(requireContext())
+                .setTitle("Archive Completed Reminders")
+                .setSingleChoiceItems(labels, archiveAgeIndex(values), (dialog, which) -> {
+                    prefs.edit().putInt(com.example.reminder.data.ArchiveWorker.KEY_ARCHIVE_AFTER_DAYS, values[which])
+                            .apply();
+                    binding.tvArchiveAge.setText(labels[which]);
+                    dialog.dismiss();
+                })
+                .show());
+    }
+
+    private void setupMissedRepeatsSelector() {
+        String[] labels = { "Summarize in One Notification", "Skip Silently" };
+        String key = com.example.reminder.receiver.AlarmScheduler.KEY_COLLAPSE_MISSED;
+
+        binding.tvMissedRepeats.setText(labels[prefs.getBoolean(key, true) ? 0 : 1]);
+
+        binding.containerMissedRepeats.setOnClickListener(v -> new android.app.AlertDialog.Builder(requireContext())
+                .setTitle("Missed Repeats")
+                .setSingleChoiceItems(labels, prefs.getBoolean(key, true) ? 0 : 1, (dialog, which) -> {
+                    prefs.edit().putBoolean(key, which == 0).apply();
+                    binding.tvMissedRepeats.setText(labels[which]);
+                    dialog.dismiss();
+                })
+                .show());
+    }
+
+    private int archiveAgeIndex(int[] values) {
+        int saved = prefs.getInt(com.example.reminder.data.ArchiveWorker.KEY_ARCHIVE_AFTER_DAYS,
+                com.example.reminder.data.ArchiveWorker.DEFAULT_ARCHIVE_AFTER_DAYS);
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == saved)
+                return i;
+        }
+        return 1; // Default 30 days
+    }
+
     private void setupRingtonePicker() {
         String savedName = prefs.getString(KEY_RINGTONE_NAME, "Default");
         binding.tvSoundName.setText(savedName);
@@ -9,7 +9,7 @@ import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.reminder.R;
-import com.example.reminder.data.Reminder;
+import com.example.reminder.data.ReminderListRow;
 import com.example.reminder.databinding.ItemCalendarDayBinding;
 
 import java.time.LocalDate;
@@ -20,7 +20,7 @@ import java.util.Map;
 public class CalendarAdapter extends RecyclerView.Adapter<CalendarAdapter.DayViewHolder> {
 
     private final List<LocalDate> days = new ArrayList<>();
-    private final Map<LocalDate, List<Reminder>> reminders;
+    private final Map<LocalDate, List<ReminderListRow>> reminders;
     private LocalDate selectedDate;
     private final OnDateClickListener listener;
 
@@ -28,7 +28,7 @@ public class CalendarAdapter extends RecyclerView.Adapter<CalendarAdapter.DayVie
         void onDateClick(LocalDate date);
     }
 
-    public CalendarAdapter(Map<LocalDate, List<Reminder>> reminders, OnDateClickListener listener) {
+    public CalendarAdapter(Map<LocalDate, List<ReminderListRow>> reminders, OnDateClickListener listener) {
         this.reminders = reminders;
         this.listener = listener;
         this.selectedDate = LocalDate.now();
@@ -54,7 +54,7 @@ public class CalendarAdapter extends RecyclerView.Adapter<CalendarAdapter.DayVie
         if (date == null) {
             holder.bindEmpty();
         } else {
-            List<Reminder> dailyReminders = reminders.get(date);
+            List<ReminderListRow> dailyReminders = reminders.get(date);
             holder.bind(date, dailyReminders, selectedDate != null && selectedDate.equals(date));
         }
     }
@@ -79,7 +79,7 @@ public class CalendarAdapter extends RecyclerView.Adapter<CalendarAdapter.DayVie
             binding.tvDayNumber.setBackground(null);
         }
 
-        public void bind(LocalDate date, List<Reminder> dailyReminders, boolean isSelected) {
+        public void bind(LocalDate date, List<ReminderListRow> dailyReminders, boolean isSelected) {
             binding.tvDayNumber.setText(String.valueOf(date.getDayOfMonth()));
 
             // Selection State
@@ -99,7 +99,7 @@ public class CalendarAdapter extends RecyclerView.Adapter<CalendarAdapter.DayVie
             if (dailyReminders != null && !dailyReminders.isEmpty()) {
                 int maxDots = 4;
                 for (int i = 0; i < Math.min(dailyReminders.size(), maxDots); i++) {
-                    Reminder r = dailyReminders.get(i);
+                    ReminderListRow r = dailyReminders.get(i);
                     // Add dot view
                     View dot = new View(itemView.getContext());
                     int size = (int) (4 * itemView.getContext().getResources().getDisplayMetrics().density);
@@ -64,7 +64,7 @@ public class CalendarFragment extends Fragment {
                         // Navigate to edit? Or just show details?
                         // Let's allow editing essentially consistent with home
                         android.os.Bundle bundle = new android.os.Bundle();
-                        bundle.putSerializable("reminder", reminder);
+                        bundle.putInt(com.example.reminder.ui.AddEditFragment.ARG_REMINDER_ID, reminder.getId());
                         androidx.navigation.Navigation.findNavController(requireView())
                                 .navigate(com.example.reminder.R.id.action_homeFragment_to_addEditFragment, bundle);
                         // Note: ID might be problematic if not global action.
@@ -80,7 +80,8 @@ public class CalendarFragment extends Fragment {
 
                     @Override
                     public void onCheckBoxClick(com.example.reminder.data.Reminder reminder, boolean isChecked) {
-                        homeViewModel.markComplete(reminder); // Reuse home VM logic
+                        // Rows carry the occurrence's time, so complete the stored reminder instead
+                        homeViewModel.markComplete(reminder.getId());
                     }
 
                     @Override
@@ -109,7 +110,8 @@ public class CalendarFragment extends Fragment {
         });
 
         viewModel.getSelectedDateReminders().observe(getViewLifecycleOwner(), reminders -> {
-            detailAdapter.submitList(reminders);
+            detailAdapter.submitData(getViewLifecycleOwner().getLifecycle(),
+                    androidx.paging.PagingData.from(reminders));
             binding.tvSelectedDate.append(" (" + reminders.size() + ")");
         });
 
@@ -125,8 +127,8 @@ public class CalendarFragment extends Fragment {
             binding.rvCalendar.setAdapter(newAdapter);
         });
 
-        // Observe Reminders from Main VM and pass to Calendar VM
-        homeViewModel.getAllReminders().observe(getViewLifecycleOwner(), reminders -> {
+        // Observe only the reminders inside the visible grid
+        viewModel.getVisibleReminders().observe(getViewLifecycleOwner(), reminders -> {
             viewModel.setReminders(reminders);
         });
 
@@ -2,9 +2,11 @@ package com.example.reminder.ui.calendar;
 
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.Transformations;
 import androidx.lifecycle.ViewModel;
 
 import com.example.reminder.data.Reminder;
+import com.example.reminder.data.ReminderListRow;
 import com.example.reminder.data.ReminderRepository;
 
 import java.time.LocalDate;
@@ -25,14 +27,24 @@ public class CalendarViewModel extends ViewModel {
     private final ReminderRepository repository;
     private final MutableLiveData<YearMonth> currentMonth = new MutableLiveData<>();
     private final MutableLiveData<List<LocalDate>> calendarDays = new MutableLiveData<>();
-    private final MutableLiveData<Map<LocalDate, List<Reminder>>> remindersForMonth = new MutableLiveData<>();
+    private final MutableLiveData<Map<LocalDate, List<ReminderListRow>>> remindersForMonth = new MutableLiveData<>();
 
     private final MutableLiveData<LocalDate> selectedDate = new MutableLiveData<>();
-    private final MutableLiveData<List<Reminder>> selectedDateReminders = new MutableLiveData<>();
+    private final LiveData<List<Reminder>> selectedDateReminders;
+
+    // [start, end) of the visible 42-day grid; drives the range query below
+    private final MutableLiveData<long[]> visibleRange = new MutableLiveData<>();
+    private final LiveData<List<ReminderListRow>> visibleReminders;
 
     @Inject
     public CalendarViewModel(ReminderRepository repository) {
         this.repository = repository;
+        // Grid dots only need day + color, so the month reads projection rows
+        this.visibleReminders = Transformations.switchMap(visibleRange,
+                range -> repository.getListRowsBetween(range[0], range[1]));
+        // Full reminders are loaded for the selected day only (the detail list edits them)
+        this.selectedDateReminders = Transformations.switchMap(selectedDate,
+                date -> repository.getRemindersFiringBetween(toMillis(date), toMillis(date.plusDays(1))));
         currentMonth.setValue(YearMonth.now());
         selectedDate.setValue(LocalDate.now()); // Default select today
         updateCalendar(YearMonth.now());
@@ -46,10 +58,15 @@ public class CalendarViewModel extends ViewModel {
         return calendarDays;
     }
 
-    public LiveData<Map<LocalDate, List<Reminder>>> getRemindersForMonth() {
+    public LiveData<Map<LocalDate, List<ReminderListRow>>> getRemindersForMonth() {
         return remindersForMonth;
     }
 
+    /** Reminders falling inside the visible grid only, re-queried whenever the month changes. */
+    public LiveData<List<ReminderListRow>> getVisibleReminders() {
+        return visibleReminders;
+    }
+
     public LiveData<LocalDate> getSelectedDate() {
         return selectedDate;
     }
@@ -60,19 +77,6 @@ public class CalendarViewModel extends ViewModel {
 
     public void selectDate(LocalDate date) {
         selectedDate.setValue(date);
-        updateSelectedReminders(date);
-    }
-
-    private void updateSelectedReminders(LocalDate date) {
-        Map<LocalDate, List<Reminder>> map = remindersForMonth.getValue();
-        if (map != null && map.containsKey(date)) {
-            // Sort by time
-            List<Reminder> list = new ArrayList<>(map.get(date));
-            list.sort((r1, r2) -> Long.compare(r1.getTimeMillis(), r2.getTimeMillis()));
-            selectedDateReminders.setValue(list);
-        } else {
-            selectedDateReminders.setValue(new ArrayList<>());
-        }
     }
 
     public void nextMonth() {
@@ -117,58 +121,23 @@ public class CalendarViewModel extends ViewModel {
 
         calendarDays.setValue(days);
 
-        // Fetch Reminders
+        // Fetch Reminders for the visible grid only (indexed range scans on fireTime / timeMillis)
         long start = toMillis(days.get(0));
-        long end = toMillis(days.get(days.size() - 1)) + 86400000; // End of last day
-
-        // Note: getAllReminders is simplest, but for optimization we should filter by
-        // range.
-        // For now, fetching all and filtering in memory is acceptable for small
-        // datasets.
-        // Ideally: repository.getRemindersBetween(start, end).
-
+        long end = toMillis(days.get(days.size() - 1).plusDays(1)); // Start of the day after the last cell
+        visibleRange.setValue(new long[] { start, end });
     }
 
-    public void setReminders(List<Reminder> allReminders) {
-        Map<LocalDate, List<Reminder>> map = new HashMap<>();
-        List<LocalDate> currentDays = calendarDays.getValue();
-        if (currentDays == null)
+    public void setReminders(List<ReminderListRow> visibleReminders) {
+        if (calendarDays.getValue() == null)
             return;
 
-        for (Reminder r : allReminders) {
-            LocalDate date = java.time.Instant.ofEpochMilli(r.getTimeMillis())
-                    .atZone(ZoneId.systemDefault())
-                    .toLocalDate();
-
-            if (map.containsKey(date)) {
-                map.get(date).add(r);
-            } else {
-                List<Reminder> list = new ArrayList<>();
-                list.add(r);
-                map.put(date, list);
-            }
-        }
-
-        // Filter only for visible days? Or map all.
-        // Mapping all is safer.
-        // Be careful: map.putIfAbsent...
-
-        // Actually, logic above is flawed: we want to map ALL reminders to dates.
-        // Let's rebuild the map.
-
-        Map<LocalDate, List<Reminder>> newMap = new HashMap<>();
-        for (Reminder r : allReminders) {
-            LocalDate date = java.time.Instant.ofEpochMilli(r.getTimeMillis())
-                    .atZone(ZoneId.systemDefault())
-                    .toLocalDate();
+        Map<LocalDate, List<ReminderListRow>> newMap = new HashMap<>();
+        for (ReminderListRow r : visibleReminders) {
+            // Day was resolved at write time; no per-row time zone math here
+            LocalDate date = LocalDate.ofEpochDay(r.getLocalEpochDay());
             newMap.computeIfAbsent(date, k -> new ArrayList<>()).add(r);
         }
         remindersForMonth.setValue(newMap);
-
-        // Refresh selected date
-        if (selectedDate.getValue() != null) {
-            updateSelectedReminders(selectedDate.getValue());
-        }
     }
 
     private long toMillis(LocalDate date) {
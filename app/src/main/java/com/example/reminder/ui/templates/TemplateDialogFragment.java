@@ -118,6 +118,7 @@ public class TemplateDialogFragment extends BottomSheetDialogFragment
         calendar.set(Calendar.SECOND, 0);
         calendar.set(Calendar.MILLISECOND, 0);
 
+        List<Reminder> reminders = new java.util.ArrayList<>(times.size());
         for (TimeSlot timeSlot : times) {
             // Set time for today
             calendar.set(Calendar.HOUR_OF_DAY, timeSlot.getHour());
@@ -138,7 +139,7 @@ public class TemplateDialogFragment extends BottomSheetDialogFragment
 
             if ("CUSTOM".equals(template.getRepeatMode())) {
                 reminder.setRepeatInterval(template.getRepeatInterval());
-                reminder.setRepeatDays(template.getRepeatDays());
+                reminder.setRepeatDayMask(template.getRepeatDays().bits());
                 reminder.setWindowStart(template.getWindowStart());
                 reminder.setWindowEnd(template.getWindowEnd());
             }
@@ -146,9 +147,12 @@ public class TemplateDialogFragment extends BottomSheetDialogFragment
             // Hide from widget per user request
             reminder.setHideFromWidget(true);
 
-            repository.insert(reminder);
+            reminders.add(reminder);
         }
 
+        // One batched write for the whole template
+        repository.insertAll(reminders);
+
         // Refresh widgets
         com.example.reminder.widget.StickyNoteWidgetProvider.sendRefreshBroadcast(appContext);
 
@@ -57,6 +57,11 @@ public class NotificationHelper {
         }
 
         public static void showNotification(Context context, Reminder reminder) {
+                showNotification(context, reminder, 0);
+        }
+
+        /** {@code missedCount}: later repeats that also passed while the device was off, shown as a count. */
+        public static void showNotification(Context context, Reminder reminder, int missedCount) {
                 if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.TIRAMISU) {
                         if (ActivityCompat.checkSelfPermission(context,
                                         Manifest.permission.POST_NOTIFICATIONS) != PackageManager.PERMISSION_GRANTED) {
@@ -107,6 +112,9 @@ public class NotificationHelper {
                                 .addAction(android.R.drawable.ic_popup_reminder, snoozeLabel, pendingSnoozeIntent)
                                 .addAction(android.R.drawable.checkbox_on_background, "Complete",
                                                 pendingCompleteIntent);
+                if (missedCount > 0) {
+                        builder.setSubText("Missed " + missedCount + (missedCount == 1 ? " time" : " times"));
+                }
 
                 NotificationManagerCompat notificationManager = NotificationManagerCompat.from(context);
                 notificationManager.notify(reminder.getId(), builder.build());
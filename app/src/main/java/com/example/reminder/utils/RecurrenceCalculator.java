@@ -0,0 +1,211 @@
+package com.example.reminder.utils;
+
+import android.app.AlarmManager;
+import com.example.reminder.data.DayMask;
+import com.example.reminder.data.Reminder;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+/**
+ * Repeat rules of a reminder, shared by the alarm rescheduler and the
+ * occurrence expander so both walk exactly the same series.
+ */
+public final class RecurrenceCalculator {
+
+    private RecurrenceCalculator() {
+    }
+
+    /** Where a repeating series resumes after falling behind, see {@link #catchUp}. */
+    public static final class CatchUp {
+        /** First fire time after now, or 0 when the reminder does not repeat. */
+        public final long nextTime;
+        /** Occurrences after the stored time that were due by now and never fired. */
+        public final int missed;
+
+        CatchUp(long nextTime, long missed) {
+            this.nextTime = nextTime;
+            this.missed = (int) Math.min(missed, Integer.MAX_VALUE);
+        }
+    }
+
+    /**
+     * Next fire time after {@code fromTime} under the reminder's repeat rule,
+     * or 0 when the reminder does not repeat.
+     */
+    public static long next(Reminder reminder, long fromTime) {
+        String repeatMode = reminder.getRepeatMode();
+        if (repeatMode == null)
+            return 0;
+
+        if ("CUSTOM".equals(repeatMode)) {
+            return nextCustomTime(reminder, fromTime);
+        }
+        if ("MONTHLY".equals(repeatMode)) {
+            // Same wall-clock time a month later, clamped to the last day of shorter months
+            return Instant.ofEpochMilli(fromTime).atZone(ZoneId.systemDefault()).plusMonths(1)
+                    .withLaterOffsetAtOverlap().toInstant().toEpochMilli();
+        }
+
+        // Standard modes
+        long interval = fixedInterval(reminder);
+        return interval > 0 ? fromTime + interval : 0;
+    }
+
+    /**
+     * First occurrence after {@code now} of the series last due at {@code lastTime},
+     * as repeated {@link #next} calls would reach it, without stepping through every
+     * missed occurrence: fixed intervals jump there directly, and day-masked CUSTOM
+     * rules take every step inside one day's slot at once, so the cost grows with the
+     * days missed rather than the occurrences. MONTHLY steps once per missed month.
+     */
+    public static CatchUp catchUp(Reminder reminder, long lastTime, long now) {
+        long interval = fixedInterval(reminder);
+        if (interval > 0) {
+            long steps = now < lastTime ? 1 : (now - lastTime) / interval + 1;
+            return new CatchUp(lastTime + steps * interval, steps - 1);
+        }
+
+        if ("CUSTOM".equals(reminder.getRepeatMode())) {
+            return catchUpCustom(lastTime, now, reminder.getRepeatInterval(), reminder.getRepeatDayMask(),
+                    reminder.getWindowStart(), reminder.getWindowEnd(), ZoneId.systemDefault());
+        }
+
+        long missed = 0;
+        long time = next(reminder, lastTime);
+        while (time != 0 && time <= now) {
+            missed++;
+            time = next(reminder, time);
+        }
+        return new CatchUp(time, missed);
+    }
+
+    // Interval of rules that are a plain fixed grid (CUSTOM without a day mask included), 0 otherwise
+    private static long fixedInterval(Reminder reminder) {
+        String repeatMode = reminder.getRepeatMode();
+        if (repeatMode == null)
+            return 0;
+
+        switch (repeatMode) {
+            case "HOURLY":
+                return AlarmManager.INTERVAL_HOUR;
+            case "DAILY":
+                return AlarmManager.INTERVAL_DAY;
+            case "WEEKLY":
+                return AlarmManager.INTERVAL_DAY * 7;
+            case "CUSTOM":
+                if (reminder.getRepeatInterval() <= 0)
+                    return AlarmManager.INTERVAL_DAY;
+                return (reminder.getRepeatDayMask() & DayMask.ALL_BITS) == 0 ? reminder.getRepeatInterval() : 0;
+            default:
+                return 0;
+        }
+    }
+
+    static CatchUp catchUpCustom(long lastTime, long now, long interval, int dayMask, Integer winStart,
+            Integer winEnd, ZoneId zone) {
+        boolean fastForward = interval < AlarmManager.INTERVAL_DAY
+                && (winStart == null || winEnd == null || winStart <= winEnd);
+        long missed = 0;
+        long time = lastTime;
+        while (true) {
+            long next = nextCustomTime(time, interval, dayMask, winStart, winEnd, zone);
+            if (next > now) {
+                return new CatchUp(next, missed);
+            }
+            missed++;
+            time = next;
+
+            // Further steps that stay on this allowed day (and inside its window) need no adjustment
+            if (fastForward) {
+                long last = Math.min(slotEnd(time, winStart, winEnd, zone) - 1, now);
+                if (last > time) {
+                    long steps = (last - time) / interval;
+                    time += steps * interval;
+                    missed += steps;
+                }
+            }
+        }
+    }
+
+    // End (exclusive) of the slot containing an allowed time: the window's last minute, or midnight
+    private static long slotEnd(long time, Integer winStart, Integer winEnd, ZoneId zone) {
+        LocalDate day = Instant.ofEpochMilli(time).atZone(zone).toLocalDate();
+        java.time.LocalDateTime end = winStart != null && winEnd != null
+                ? day.atStartOfDay().plusMinutes(winEnd + 1)
+                : day.plusDays(1).atStartOfDay();
+        java.time.zone.ZoneOffsetTransition gap = zone.getRules().getTransition(end);
+        if (gap != null && gap.isGap()) {
+            return gap.getInstant().toEpochMilli(); // Clocks jump past the window end: the slot ends there
+        }
+        return end.atZone(zone).toInstant().toEpochMilli();
+    }
+
+    private static long nextCustomTime(Reminder reminder, long lastTime) {
+        return nextCustomTime(lastTime, reminder.getRepeatInterval(), reminder.getRepeatDayMask(),
+                reminder.getWindowStart(), reminder.getWindowEnd(), ZoneId.systemDefault());
+    }
+
+    /**
+     * CUSTOM rule: {@code lastTime + interval}, moved to the first allowed weekday
+     * and into the daily window (minutes from midnight, inclusive) when those are
+     * set. Closed form: at most one look at the proposed day and one jump of 1-7
+     * days found from the mask bits, instead of walking day by day.
+     */
+    static long nextCustomTime(long lastTime, long interval, int dayMask, Integer winStart, Integer winEnd,
+            ZoneId zone) {
+        // If interval is 0, treat as daily (fallback)
+        if (interval <= 0)
+            return lastTime + AlarmManager.INTERVAL_DAY;
+
+        // Proposed next time based on interval; with no day constraint it stands
+        long next = lastTime + interval;
+        int days = dayMask & DayMask.ALL_BITS;
+        if (days == 0)
+            return next;
+
+        ZonedDateTime proposed = Instant.ofEpochMilli(next).atZone(zone);
+        boolean hasWindow = winStart != null && winEnd != null;
+        int calendarDay = calendarDay(proposed.getDayOfWeek());
+
+        // The proposed day itself: fine as is, or too early and pulled forward to the window start
+        if (DayMask.contains(days, calendarDay)) {
+            int minutes = proposed.getHour() * 60 + proposed.getMinute();
+            if (!hasWindow || (minutes >= winStart && minutes <= winEnd)) {
+                return next;
+            }
+            if (minutes < winStart) {
+                return atMinutes(proposed, proposed.toLocalDate(), winStart, zone);
+            }
+        }
+        if (hasWindow && winStart > winEnd) {
+            return next; // Inverted window: no later day can satisfy it
+        }
+
+        // Jump to the next allowed weekday: rotate the mask so bit 0 is tomorrow
+        int rotated = ((days >>> calendarDay) | (days << (7 - calendarDay))) & DayMask.ALL_BITS;
+        LocalDate day = proposed.toLocalDate().plusDays(Integer.numberOfTrailingZeros(rotated) + 1);
+        if (winStart == null) {
+            return proposed.with(day).toInstant().toEpochMilli(); // Same wall-clock time, and offset if it exists
+        }
+        return atMinutes(proposed, day, winStart, zone);
+    }
+
+    // Calendar.DAY_OF_WEEK numbering (Sunday = 1), which DayMask bits follow
+    private static int calendarDay(DayOfWeek dayOfWeek) {
+        return dayOfWeek.getValue() % 7 + 1;
+    }
+
+    // Minutes from midnight on that day; sub-second precision of the proposed time is kept
+    private static long atMinutes(ZonedDateTime proposed, LocalDate day, int minutes, ZoneId zone) {
+        return toEpochMilli(day, LocalTime.of(minutes / 60, minutes % 60, 0, proposed.getNano()), zone);
+    }
+
+    // Wall-clock times repeated when clocks go back resolve to the later one, as Calendar did
+    private static long toEpochMilli(LocalDate day, LocalTime time, ZoneId zone) {
+        return ZonedDateTime.of(day, time, zone).withLaterOffsetAtOverlap().toInstant().toEpochMilli();
+    }
+}
@@ -6,17 +6,14 @@ import android.widget.RemoteViews;
 import android.widget.RemoteViewsService;
 import com.example.reminder.R;
 import com.example.reminder.data.AppDatabase;
-import com.example.reminder.data.Reminder;
-import com.example.reminder.di.AppModule;
-import dagger.hilt.android.AndroidEntryPoint;
+import com.example.reminder.data.WidgetRow;
+import com.example.reminder.di.AppEntryPoint;
+import dagger.hilt.android.EntryPointAccessors;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
-import javax.inject.Inject;
-import androidx.room.Room;
-import androidx.room.RoomDatabase;
 
 public class WidgetRemoteViewsService extends RemoteViewsService {
     @Override
@@ -28,18 +25,19 @@ public class WidgetRemoteViewsService extends RemoteViewsService {
 class ReminderRemoteViewsFactory implements RemoteViewsService.RemoteViewsFactory {
 
     private final Context context;
-    private List<Reminder> reminders = new ArrayList<>();
-    private AppDatabase database;
+    private List<WidgetRow> reminders = new ArrayList<>();
+    private long todayEpochDay; // Resolved once per data load, compared per row
+    private final AppDatabase database;
+    private final com.example.reminder.data.QueryMetrics queryMetrics;
+    private boolean loadedOnce; // First load after creation is logged as cold
 
     public ReminderRemoteViewsFactory(Context context) {
         this.context = context;
-        // Manually build DB since Service injection is tricky in
-        // RemoteViewsServiceFactory
-        // Enable WAL to prevent locking with Main App
-        database = Room.databaseBuilder(context, AppDatabase.class, "reminder_database")
-                .addMigrations(AppDatabase.MIGRATION_2_3)
-                .setJournalMode(RoomDatabase.JournalMode.WRITE_AHEAD_LOGGING)
-                .build();
+        // Share the app's Hilt singleton: no second connection pool / WAL handles to open,
+        // and the same invalidation tracker as every other reader
+        AppEntryPoint entryPoint = EntryPointAccessors.fromApplication(context, AppEntryPoint.class);
+        database = entryPoint.appDatabase();
+        queryMetrics = entryPoint.queryMetrics();
     }
 
     @Override
@@ -52,21 +50,17 @@ class ReminderRemoteViewsFactory implements RemoteViewsService.RemoteViewsFactor
         android.util.Log.d("WidgetService", "onDataSetChanged START");
         long identityToken = android.os.Binder.clearCallingIdentity();
         try {
-            if (database == null) {
-                android.util.Log.e("WidgetService", "Database is null in onDataSetChanged! Recreating...");
-                database = Room.databaseBuilder(context, AppDatabase.class, "reminder_database")
-                        .addMigrations(AppDatabase.MIGRATION_2_3)
-                        .fallbackToDestructiveMigration() // Handle version update
-                        .setJournalMode(RoomDatabase.JournalMode.WRITE_AHEAD_LOGGING)
-                        .build();
-            }
-
-            reminders = database.reminderDao().getWidgetRemindersSync();
+            long start = android.os.SystemClock.elapsedRealtime();
+            reminders = queryMetrics.time("getWidgetRowsSync", database.reminderDao()::getWidgetRowsSync);
+            todayEpochDay = com.example.reminder.data.EpochDays.today();
+            android.util.Log.d("WidgetService", "onDataSetChanged: " + (loadedOnce ? "warm" : "cold") + " load took "
+                    + (android.os.SystemClock.elapsedRealtime() - start) + " ms");
+            loadedOnce = true;
             android.util.Log.d("WidgetService",
                     "onDataSetChanged: Data fetched. Count: " + (reminders != null ? reminders.size() : "null"));
 
             if (reminders != null) {
-                for (Reminder r : reminders) {
+                for (WidgetRow r : reminders) {
                     android.util.Log.v("WidgetService", " - Reminder: " + r.getTitle() + " (ID: " + r.getId() + ")");
                 }
             }
@@ -81,8 +75,7 @@ class ReminderRemoteViewsFactory implements RemoteViewsService.RemoteViewsFactor
     @Override
     public void onDestroy() {
         android.util.Log.d("WidgetService", "onDestroy");
-        if (database != null)
-            database.close();
+        // The database is the app-wide singleton; never close it here
     }
 
     @Override
@@ -102,7 +95,7 @@ class ReminderRemoteViewsFactory implements RemoteViewsService.RemoteViewsFactor
         }
 
         try {
-            Reminder reminder = reminders.get(position);
+            WidgetRow reminder = reminders.get(position);
             RemoteViews rv = new RemoteViews(context.getPackageName(), R.layout.widget_item);
 
             // Header Logic Removed per user request
@@ -111,12 +104,7 @@ class ReminderRemoteViewsFactory implements RemoteViewsService.RemoteViewsFactor
             rv.setTextViewText(R.id.widget_item_title, reminder.getTitle());
 
             // Date Logic: Today = time only, Other days = date only
-            java.util.Calendar now = java.util.Calendar.getInstance();
-            java.util.Calendar target = java.util.Calendar.getInstance();
-            target.setTimeInMillis(reminder.getTimeMillis());
-
-            boolean isToday = now.get(java.util.Calendar.YEAR) == target.get(java.util.Calendar.YEAR) &&
-                    now.get(java.util.Calendar.DAY_OF_YEAR) == target.get(java.util.Calendar.DAY_OF_YEAR);
+            boolean isToday = reminder.getLocalEpochDay() == todayEpochDay;
 
             String timeText;
             if (isToday) {
@@ -132,14 +120,7 @@ class ReminderRemoteViewsFactory implements RemoteViewsService.RemoteViewsFactor
             rv.setTextViewText(R.id.widget_item_time, timeText);
 
             // Overdue Logic: Check if task is from a previous day
-            java.util.Calendar today = java.util.Calendar.getInstance();
-            // Reset to beginning of day
-            today.set(java.util.Calendar.HOUR_OF_DAY, 0);
-            today.set(java.util.Calendar.MINUTE, 0);
-            today.set(java.util.Calendar.SECOND, 0);
-            today.set(java.util.Calendar.MILLISECOND, 0);
-
-            if (reminder.getTimeMillis() < today.getTimeInMillis() && !reminder.isCompleted()) {
+            if (reminder.getLocalEpochDay() < todayEpochDay && !reminder.isCompleted()) {
                 // Overdue - red time text only
                 rv.setInt(R.id.widget_item_container, "setBackgroundResource", R.drawable.bg_card_glass);
                 rv.setTextColor(R.id.widget_item_time, context.getColor(R.color.color_delete)); // Red for overdue
@@ -0,0 +1,37 @@
+package com.example.reminder.receiver;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.example.reminder.data.Reminder;
+import org.junit.Test;
+
+public class AlarmSchedulerTest {
+
+    private static final long DUE = 1_700_000_000_000L;
+
+    @Test
+    public void reminderWrittenBeforeItsTimeIsCaughtUp() {
+        // Saved an hour ahead, then the app was killed past its time
+        assertFalse(AlarmScheduler.isPastDated(reminder(DUE, DUE - 60 * 60 * 1000L)));
+    }
+
+    @Test
+    public void reminderCreatedOrEditedToAPastTimeIsSkipped() {
+        assertTrue(AlarmScheduler.isPastDated(reminder(DUE, DUE + 5_000)));
+        assertTrue(AlarmScheduler.isPastDated(reminder(DUE, DUE)));
+    }
+
+    @Test
+    public void rowsWithoutUpdatedAtCountAsDue() {
+        // Migrated rows default to 0
+        assertFalse(AlarmScheduler.isPastDated(reminder(DUE, 0)));
+    }
+
+    private static Reminder reminder(long timeMillis, long updatedAt) {
+        Reminder reminder = new Reminder();
+        reminder.setTimeMillis(timeMillis);
+        reminder.setUpdatedAt(updatedAt);
+        return reminder;
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.reminder.utils;
+
+import com.example.reminder.data.DayMask;
+import java.util.Calendar;
+import java.util.TimeZone;
+
+/**
+ * The CUSTOM rule as it was computed before the java.time rewrite: a Calendar
+ * walked one day at a time, up to a year ahead. Kept only as the reference the
+ * closed form is checked and timed against.
+ */
+final class LegacyRecurrence {
+
+    private static final long DAY_MS = 24 * 60 * 60 * 1000L;
+
+    private LegacyRecurrence() {
+    }
+
+    static long nextCustomTime(long lastTime, long interval, int dayMask, Integer winStart, Integer winEnd,
+            TimeZone zone) {
+        if (interval <= 0)
+            return lastTime + DAY_MS;
+
+        long next = lastTime + interval;
+        if (dayMask == 0)
+            return next;
+
+        Calendar cal = Calendar.getInstance(zone);
+        cal.setTimeInMillis(next);
+
+        int safeguards = 0;
+        while (safeguards < 365) {
+            int currentDay = cal.get(Calendar.DAY_OF_WEEK);
+            int currentMinutes = cal.get(Calendar.HOUR_OF_DAY) * 60 + cal.get(Calendar.MINUTE);
+
+            if (DayMask.contains(dayMask, currentDay)) {
+                boolean windowValid = true;
+                if (winStart != null && winEnd != null) {
+                    if (currentMinutes < winStart) {
+                        cal.set(Calendar.HOUR_OF_DAY, winStart / 60);
+                        cal.set(Calendar.MINUTE, winStart % 60);
+                        cal.set(Calendar.SECOND, 0);
+                        return cal.getTimeInMillis();
+                    } else if (currentMinutes > winEnd) {
+                        windowValid = false;
+                    }
+                }
+
+                if (windowValid) {
+                    return cal.getTimeInMillis();
+                }
+            }
+
+            cal.add(Calendar.DAY_OF_YEAR, 1);
+            if (winStart != null) {
+                cal.set(Calendar.HOUR_OF_DAY, winStart / 60);
+                cal.set(Calendar.MINUTE, winStart % 60);
+                cal.set(Calendar.SECOND, 0);
+            }
+            safeguards++;
+        }
+
+        return next;
+    }
+}
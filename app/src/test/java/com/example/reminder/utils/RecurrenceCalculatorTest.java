@@ -0,0 +1,137 @@
+package com.example.reminder.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.example.reminder.data.DayMask;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.zone.ZoneOffsetTransition;
+import java.util.Calendar;
+import java.util.Random;
+import java.util.TimeZone;
+import org.junit.Test;
+
+public class RecurrenceCalculatorTest {
+
+    private static final String[] ZONES = { "UTC", "America/New_York", "Europe/London", "Australia/Lord_Howe",
+            "Asia/Kolkata" };
+    private static final int CASES_PER_ZONE = 50_000;
+    private static final long HOUR_MS = 60 * 60 * 1000L;
+    private static final long DAY_MS = 24 * HOUR_MS;
+
+    private static final ZoneId NEW_YORK = ZoneId.of("America/New_York");
+
+    /**
+     * Random CUSTOM rules in zones with and without DST. Results match the old
+     * Calendar loop exactly, except where its day-by-day walk crossed a clock
+     * change: there they differ by at most the size of the jump.
+     */
+    @Test
+    public void customMatchesLegacyLoopExceptAcrossClockChanges() {
+        long[] fixedIntervals = { 0, -5, 60_000, HOUR_MS, DAY_MS, 90 * 60_000L, 7 * DAY_MS };
+        for (String id : ZONES) {
+            ZoneId zone = ZoneId.of(id);
+            TimeZone timeZone = TimeZone.getTimeZone(zone);
+            Random random = new Random(id.hashCode());
+            for (int i = 0; i < CASES_PER_ZONE; i++) {
+                int pick = random.nextInt(fixedIntervals.length + 1);
+                long interval = pick < fixedIntervals.length ? fixedIntervals[pick] : random.nextInt(1 << 30);
+                int dayMask = random.nextInt(4) == 0 ? 0 : random.nextInt(128);
+                Integer winStart = null;
+                Integer winEnd = null;
+                int windowKind = random.nextInt(4);
+                if (windowKind > 0) {
+                    winStart = random.nextInt(1440);
+                }
+                if (windowKind > 1 || random.nextBoolean()) {
+                    winEnd = random.nextInt(1440);
+                }
+                if (windowKind == 3 && winStart != null && winStart > winEnd) {
+                    int swap = winStart;
+                    winStart = winEnd;
+                    winEnd = swap;
+                }
+                long lastTime = 1_600_000_000_000L + (long) (random.nextDouble() * 2e11);
+                if (random.nextBoolean()) {
+                    lastTime -= lastTime % 60_000;
+                }
+
+                long expected = LegacyRecurrence.nextCustomTime(lastTime, interval, dayMask, winStart, winEnd,
+                        timeZone);
+                long actual = RecurrenceCalculator.nextCustomTime(lastTime, interval, dayMask, winStart, winEnd,
+                        zone);
+                if (actual != expected) {
+                    String message = id + " interval=" + interval + " mask=" + dayMask + " window=" + winStart
+                            + ".." + winEnd + " last=" + lastTime + " legacy=" + expected + " actual=" + actual;
+                    long from = Math.min(lastTime + interval, Math.min(expected, actual));
+                    assertTrue(message, crossesTransition(zone, from, Math.max(expected, actual)));
+                    assertTrue(message, Math.abs(actual - expected) <= HOUR_MS);
+                }
+            }
+        }
+    }
+
+    /**
+     * The old loop added whole calendar days across the spring-forward night and
+     * ended up an hour early. The closed form keeps the wall-clock time.
+     */
+    @Test
+    public void springForwardKeepsWallClockTimeWhereLegacyLoopDrifted() {
+        int tuesdayOrWednesday = DayMask.ofDays(Calendar.TUESDAY, Calendar.WEDNESDAY).bits();
+        // Thursday before the March 10 2024 change; an hour later is still Thursday, so skip to Tuesday
+        long lastTime = millis(ZonedDateTime.of(2024, 3, 7, 1, 14, 46, 676_000_000, NEW_YORK));
+
+        long actual = RecurrenceCalculator.nextCustomTime(lastTime, HOUR_MS, tuesdayOrWednesday, null, null,
+                NEW_YORK);
+        long legacy = LegacyRecurrence.nextCustomTime(lastTime, HOUR_MS, tuesdayOrWednesday, null, null,
+                TimeZone.getTimeZone(NEW_YORK));
+
+        assertEquals(millis(ZonedDateTime.of(2024, 3, 12, 2, 14, 46, 676_000_000, NEW_YORK)), actual);
+        assertEquals(millis(ZonedDateTime.of(2024, 3, 12, 1, 14, 46, 676_000_000, NEW_YORK)), legacy);
+    }
+
+    /** A window start inside the repeated fall-back hour resolves to the later offset, as Calendar did. */
+    @Test
+    public void fallBackOverlapResolvesToLaterOffsetLikeLegacyLoop() {
+        int sunday = DayMask.ofDays(Calendar.SUNDAY).bits();
+        long lastTime = millis(ZonedDateTime.of(2024, 11, 2, 9, 0, 0, 0, NEW_YORK));
+
+        long actual = RecurrenceCalculator.nextCustomTime(lastTime, HOUR_MS, sunday, 90, 600, NEW_YORK);
+        long legacy = LegacyRecurrence.nextCustomTime(lastTime, HOUR_MS, sunday, 90, 600,
+                TimeZone.getTimeZone(NEW_YORK));
+
+        assertEquals(millis(ZonedDateTime.of(2024, 11, 3, 1, 30, 0, 0, NEW_YORK).withLaterOffsetAtOverlap()),
+                actual);
+        assertEquals(legacy, actual);
+    }
+
+    /** An allowed day reached by the interval alone is kept, inside the window or pulled to its start. */
+    @Test
+    public void proposedDayIsKeptOrPulledToWindowStart() {
+        ZoneId utc = ZoneId.of("UTC");
+        int weekdays = DayMask.ofDays(Calendar.MONDAY, Calendar.TUESDAY, Calendar.WEDNESDAY, Calendar.THURSDAY,
+                Calendar.FRIDAY).bits();
+        // Monday 2024-06-03 07:00; window 08:00-18:00
+        long monday7 = millis(ZonedDateTime.of(2024, 6, 3, 7, 0, 0, 0, utc));
+
+        assertEquals(millis(ZonedDateTime.of(2024, 6, 3, 8, 0, 0, 0, utc)),
+                RecurrenceCalculator.nextCustomTime(monday7 - HOUR_MS, HOUR_MS, weekdays, 480, 1080, utc));
+        assertEquals(monday7 + 2 * HOUR_MS,
+                RecurrenceCalculator.nextCustomTime(monday7 + HOUR_MS, HOUR_MS, weekdays, 480, 1080, utc));
+        // Friday 18:30 is past the window: Monday at its start
+        long friday17 = millis(ZonedDateTime.of(2024, 6, 7, 17, 30, 0, 0, utc));
+        assertEquals(millis(ZonedDateTime.of(2024, 6, 10, 8, 0, 0, 0, utc)),
+                RecurrenceCalculator.nextCustomTime(friday17, HOUR_MS, weekdays, 480, 1080, utc));
+    }
+
+    private static boolean crossesTransition(ZoneId zone, long from, long to) {
+        ZoneOffsetTransition transition = zone.getRules().nextTransition(Instant.ofEpochMilli(from - DAY_MS));
+        return transition != null && transition.getInstant().toEpochMilli() <= to + DAY_MS;
+    }
+
+    private static long millis(ZonedDateTime time) {
+        return time.toInstant().toEpochMilli();
+    }
+}